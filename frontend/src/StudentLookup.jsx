@@ -1,4 +1,4 @@
-import React, { useState, useEffect, useRef } from 'react'
+import React, { useState, useEffect, useRef, useMemo } from 'react'
 
 export default function StudentLookup() {
   const [studentId, setStudentId] = useState('')
@@ -6,35 +6,67 @@ export default function StudentLookup() {
   const [status, setStatus] = useState('')
   const [groupName, setGroupName] = useState('')
   const [members, setMembers] = useState([])
-  const [available, setAvailable] = useState([])
+  const [roster, setRoster] = useState({})
   const [search, setSearch] = useState('')
   const [studentObj, setStudentObj] = useState(null)
   const [groupObj, setGroupObj] = useState(null)
   const [showCreateModal, setShowCreateModal] = useState(false)
   const [createStatus, setCreateStatus] = useState('')
-  const searchTimer = useRef(null)
+  const changeSeq = useRef(0)
+  const syncedCourse = useRef(courseId)
 
   // Student lookup removed — the student enters their Student ID inside the Create Group modal instead.
   // My Group will be displayed after creating a group (or if you manually fetch via the API).
 
 
-  const fetchSuggestions = async (q) => {
+  // The course roster is held here and kept current with delta syncs: only students changed since
+  // the last change sequence we saw are fetched, and a reset reloads the whole roster (since=0).
+  // Syncs can overlap, so a response older than one already applied is dropped.
+  const syncRoster = async (course) => {
     try {
-      const res = await fetch(`http://localhost:8080/api/students?courseId=${encodeURIComponent(courseId)}&q=${encodeURIComponent(q||'')}`)
-      if (res.ok) {
-        const json = await res.json()
-        setAvailable(json)
+      const since = changeSeq.current
+      const res = await fetch(`http://localhost:8080/api/courses/${encodeURIComponent(course)}/changes?since=${since}`, { credentials: 'include' })
+      if (!res.ok) return
+      const changes = await res.json()
+      if (course !== syncedCourse.current) return // the course was switched meanwhile
+      if (!changes.reset && changes.seq < changeSeq.current) return // a newer sync already landed
+      if (changes.reset) {
+        changeSeq.current = 0
+        setRoster({})
+        return syncRoster(course)
       }
+      changeSeq.current = changes.seq
+      setRoster(prev => {
+        const next = since === 0 ? {} : { ...prev }
+        changes.students.forEach(s => { next[s.studentId] = s })
+        return next
+      })
     } catch (err) {
-      console.error('suggestions error', err)
+      console.error('roster sync error', err)
     }
   }
 
+  // Live roster updates: each group change on the course triggers a delta sync
   useEffect(() => {
-    if (searchTimer.current) clearTimeout(searchTimer.current)
-    searchTimer.current = setTimeout(() => fetchSuggestions(search), 300)
-    return () => clearTimeout(searchTimer.current)
-  }, [search, courseId])
+    syncedCourse.current = courseId
+    changeSeq.current = 0
+    setRoster({})
+    syncRoster(courseId)
+    const source = new EventSource(`http://localhost:8080/api/courses/${encodeURIComponent(courseId)}/events`, { withCredentials: true })
+    const onChange = () => syncRoster(courseId)
+    source.addEventListener('GROUP_CREATED', onChange)
+    source.addEventListener('GROUP_CHANGED', onChange)
+    return () => source.close()
+  }, [courseId])
+
+  // Students not yet in a group, filtered locally by id, name or email
+  const available = useMemo(() => {
+    const q = search.trim().toLowerCase()
+    return Object.values(roster)
+      .filter(s => !s.groupId)
+      .filter(s => !q || [s.studentId, s.firstName, s.lastName, s.email].some(v => v && v.toLowerCase().includes(q)))
+      .sort((a, b) => a.studentId.localeCompare(b.studentId))
+  }, [roster, search])
 
   const createGroup = async () => {
     // The first member in the members list becomes the group leader
@@ -58,7 +90,8 @@ export default function StudentLookup() {
           const created = JSON.parse(txt)
           setCreateStatus(JSON.stringify(created, null, 2));
           // set the local My Group display to the new group and student
-          setGroupName(''); setMembers([]); setAvailable([]); setSearch(''); setShowCreateModal(false);
+          setGroupName(''); setMembers([]); setSearch(''); setShowCreateModal(false);
+          syncRoster(courseId)
           setStudentObj({ studentId: leader })
           setGroupObj(created)
         } catch(e) { setCreateStatus(txt) }
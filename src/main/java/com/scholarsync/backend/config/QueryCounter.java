@@ -0,0 +1,188 @@
+package com.scholarsync.backend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * SQL statements Hibernate prepares on the current thread between {@link #start} and {@link #close},
+ * counted by kind and by shape (the SQL with literals and IN lists collapsed), for query budgets in
+ * tests and N+1 detection per request.
+ *
+ * Every statement passes through {@link Inspector} ({@code hibernate.session_factory.statement_inspector}),
+ * which adds it to the counter bound to the current thread and to the counters that one replaced, so
+ * a test can count inside a request that is already being counted. A counter started with limits
+ * remembers the first one exceeded, with a sample of the application stack that issued the statement.
+ *
+ * Batched statements are prepared once per batch, so a run of inserts that is batched counts once
+ * and one that is not shows up as a repeated shape.
+ */
+public final class QueryCounter implements AutoCloseable {
+
+    public enum Kind { SELECT, INSERT, UPDATE, DELETE, OTHER }
+
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int STACK_SAMPLE_FRAMES = 12;
+
+    private final QueryCounter previous;
+    private final int maxStatements;
+    private final int maxRepeats;
+
+    private final Map<Kind, Integer> counts = new EnumMap<>(Kind.class);
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private int total;
+    private String violation;
+    private StackTraceElement[] violationStack;
+
+    private QueryCounter(QueryCounter previous, int maxStatements, int maxRepeats) {
+        this.previous = previous;
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+    }
+
+    /** Starts counting on this thread, without limits. */
+    public static QueryCounter start() {
+        return start(0, 0);
+    }
+
+    /**
+     * Starts counting on this thread. A limit of 0 or less is not checked.
+     *
+     * @param maxStatements statements allowed in total
+     * @param maxRepeats    times one statement shape may be issued
+     */
+    public static QueryCounter start(int maxStatements, int maxRepeats) {
+        QueryCounter counter = new QueryCounter(CURRENT.get(), maxStatements, maxRepeats);
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    public static QueryCounter current() {
+        return CURRENT.get();
+    }
+
+    /** Stops counting; the counts stay readable. */
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int count(Kind kind) {
+        return counts.getOrDefault(kind, 0);
+    }
+
+    public int getSelectCount() {
+        return count(Kind.SELECT);
+    }
+
+    public int getInsertCount() {
+        return count(Kind.INSERT);
+    }
+
+    public int getUpdateCount() {
+        return count(Kind.UPDATE);
+    }
+
+    public int getDeleteCount() {
+        return count(Kind.DELETE);
+    }
+
+    /** Statement shapes in the order first seen, with how often each was issued. */
+    public Map<String, Integer> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+
+    /** The first limit exceeded, e.g. "61 statements (limit 50)", or null. */
+    public String getViolation() {
+        return violation;
+    }
+
+    /** Application frames that issued the statement exceeding a limit, innermost first; empty if none. */
+    public StackTraceElement[] getViolationStack() {
+        return violationStack == null ? new StackTraceElement[0] : violationStack.clone();
+    }
+
+    private void record(Kind kind, String shape) {
+        total++;
+        counts.merge(kind, 1, Integer::sum);
+        int repeats = shapes.merge(shape, 1, Integer::sum);
+        if (violation != null) {
+            return;
+        }
+        if (maxStatements > 0 && total > maxStatements) {
+            violation = total + " statements (limit " + maxStatements + ")";
+        } else if (maxRepeats > 0 && repeats > maxRepeats) {
+            violation = "same statement " + repeats + " times (limit " + maxRepeats + "): " + shape;
+        } else {
+            return;
+        }
+        violationStack = applicationFrames(Thread.currentThread().getStackTrace());
+    }
+
+    private static StackTraceElement[] applicationFrames(StackTraceElement[] stack) {
+        return Arrays.stream(stack)
+                .filter(f -> f.getClassName().startsWith("com.scholarsync.")
+                        && !f.getClassName().equals(QueryCounter.class.getName())
+                        && !f.getClassName().equals(Inspector.class.getName())
+                        && !f.getClassName().contains("$$")) // CGLIB proxies
+                .limit(STACK_SAMPLE_FRAMES)
+                .toArray(StackTraceElement[]::new);
+    }
+
+    static Kind kindOf(String sql) {
+        String s = COMMENT.matcher(sql).replaceAll("").stripLeading().toLowerCase(Locale.ROOT);
+        if (s.startsWith("select") || s.startsWith("with")) return Kind.SELECT;
+        if (s.startsWith("insert")) return Kind.INSERT;
+        if (s.startsWith("update")) return Kind.UPDATE;
+        if (s.startsWith("delete")) return Kind.DELETE;
+        return Kind.OTHER;
+    }
+
+    /** The statement with comments dropped, literals replaced by {@code ?} and IN lists collapsed to {@code in (?)}. */
+    static String shapeOf(String sql) {
+        String s = COMMENT.matcher(sql).replaceAll(" ");
+        s = STRING_LITERAL.matcher(s).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = IN_LIST.matcher(s).replaceAll("in (?)");
+        return WHITESPACE.matcher(s).replaceAll(" ").trim();
+    }
+
+    /** Hibernate hook; sees each statement as it is prepared and leaves it unchanged. */
+    public static class Inspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            QueryCounter counter = CURRENT.get();
+            if (counter != null) {
+                Kind kind = kindOf(sql);
+                String shape = shapeOf(sql);
+                for (QueryCounter c = counter; c != null; c = c.previous) {
+                    c.record(kind, shape);
+                }
+            }
+            return sql;
+        }
+    }
+}
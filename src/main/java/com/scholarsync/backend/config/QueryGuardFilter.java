@@ -0,0 +1,66 @@
+package com.scholarsync.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Staging guard against query creep ({@code app.db.query-guard.enabled=true}). Counts the SQL each
+ * request issues with a {@link QueryCounter}, and when a request goes over
+ * {@code app.db.query-guard.max-statements} or issues one statement shape more than
+ * {@code app.db.query-guard.max-repeats} times (the N+1 signature) logs a warning with the
+ * statement shapes and the application frames that issued the offending statement, and counts it
+ * in {@code db.query.guard.violations} by route.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@ConditionalOnProperty(name = "app.db.query-guard.enabled", havingValue = "true")
+public class QueryGuardFilter extends OncePerRequestFilter {
+
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final MeterRegistry meterRegistry;
+
+    public QueryGuardFilter(@Value("${app.db.query-guard.max-statements:50}") int maxStatements,
+                            @Value("${app.db.query-guard.max-repeats:10}") int maxRepeats,
+                            MeterRegistry meterRegistry) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryCounter queries = QueryCounter.start(maxStatements, maxRepeats);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queries.close();
+            if (queries.getViolation() != null) {
+                String route = RequestMetricsFilter.routeOf(request, response);
+                Counter.builder("db.query.guard.violations").tag("uri", route).register(meterRegistry).increment();
+                log.warn("{} {} ({}): {}; {} statements: {}\n\tat {}",
+                        request.getMethod(), request.getRequestURI(), route, queries.getViolation(), queries.getTotal(),
+                        queries.getShapes(),
+                        Arrays.stream(queries.getViolationStack()).map(String::valueOf).collect(Collectors.joining("\n\tat ")));
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.scholarsync.backend.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Database work done while serving the current request: JDBC statements executed, time spent
+ * executing them and time spent waiting for a pooled connection.
+ *
+ * Hibernate's {@code Statistics} are factory-wide and cannot be attributed to a single request,
+ * so the numbers come from a {@link Listener} that Hibernate attaches to every session
+ * ({@code hibernate.session.events.auto}) and that adds to the holder bound to the current thread
+ * by {@link RequestMetricsFilter}. Work on threads without a bound holder is not counted.
+ */
+public final class RequestDbStats {
+
+    private static final ThreadLocal<RequestDbStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long statementNanos;
+    private long connectionWaitNanos;
+
+    /** Binds a fresh holder to this thread, replacing any previous one. */
+    public static RequestDbStats begin() {
+        RequestDbStats stats = new RequestDbStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestDbStats current() {
+        return CURRENT.get();
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    /** Per-session listener; each session is used by one thread at a time. */
+    public static class Listener implements SessionEventListener {
+
+        private long statementStart;
+        private long batchStart;
+        private long acquisitionStart;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            statementStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            RequestDbStats stats = CURRENT.get();
+            if (stats != null) {
+                stats.statements++;
+                stats.statementNanos += System.nanoTime() - statementStart;
+            }
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            batchStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            RequestDbStats stats = CURRENT.get();
+            if (stats != null) {
+                stats.statements++;
+                stats.statementNanos += System.nanoTime() - batchStart;
+            }
+        }
+
+        @Override
+        public void jdbcConnectionAcquisitionStart() {
+            acquisitionStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcConnectionAcquisitionEnd() {
+            RequestDbStats stats = CURRENT.get();
+            if (stats != null) {
+                stats.connectionWaitNanos += System.nanoTime() - acquisitionStart;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.scholarsync.backend.config;
+
+import com.scholarsync.backend.dto.SlowRequest;
+import com.scholarsync.backend.service.SlowRequestLog;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route database load and slow-request sampling. Route latency itself is Spring Boot's
+ * {@code http.server.requests} timer (histogram and SLO buckets configured in application.properties);
+ * next to it this records, per route, the statements ({@code http.server.requests.db.statements})
+ * and JDBC time ({@code http.server.requests.db.time}) each request needed, and hands requests
+ * over the slow threshold to {@link SlowRequestLog} with their database breakdown.
+ *
+ * Runs ahead of Spring Security so rejected and redirected requests are measured too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final SlowRequestLog slowRequestLog;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry, SlowRequestLog slowRequestLog) {
+        this.meterRegistry = meterRegistry;
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestDbStats db = RequestDbStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDbStats.end();
+            long durationNanos = System.nanoTime() - start;
+            String route = routeOf(request, response);
+
+            DistributionSummary.builder("http.server.requests.db.statements")
+                    .description("JDBC statements executed per request")
+                    .tag("uri", route)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(db.getStatements());
+            Timer.builder("http.server.requests.db.time")
+                    .description("JDBC execution time per request")
+                    .tag("uri", route)
+                    .register(meterRegistry)
+                    .record(db.getStatementNanos(), TimeUnit.NANOSECONDS);
+
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+            if (slowRequestLog.isSlow(durationMillis)) {
+                slowRequestLog.record(new SlowRequest(Instant.now(), request.getMethod(), route, request.getRequestURI(),
+                        response.getStatus(), durationMillis, db.getStatements(),
+                        TimeUnit.NANOSECONDS.toMillis(db.getStatementNanos()),
+                        TimeUnit.NANOSECONDS.toMillis(db.getConnectionWaitNanos())));
+            }
+        }
+    }
+
+    // Same buckets as http.server.requests: the route template, never the raw path, to bound tag values
+    static String routeOf(HttpServletRequest request, HttpServletResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.toString();
+        }
+        int status = response.getStatus();
+        if (status == HttpServletResponse.SC_NOT_FOUND) return "NOT_FOUND";
+        if (status >= 300 && status < 400) return "REDIRECTION";
+        return "UNKNOWN";
+    }
+}
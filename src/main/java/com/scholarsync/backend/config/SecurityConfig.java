@@ -1,14 +1,24 @@
 package com.scholarsync.backend.config;
 
 import com.scholarsync.backend.security.JwtAuthenticationFilter;
+import com.scholarsync.backend.security.LoginAdmissionFilter;
+import com.scholarsync.backend.security.LoginObservationFilter;
+import com.scholarsync.backend.security.LoginTracing;
 import com.scholarsync.backend.security.OAuth2LoginSuccessHandler;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.Customizer;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.client.endpoint.RestClientAuthorizationCodeTokenResponseClient;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.oauth2.client.web.OAuth2LoginAuthenticationFilter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
@@ -17,25 +27,71 @@ public class SecurityConfig {
 
     private final OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final LoginAdmissionFilter loginAdmissionFilter;
+    private final LoginObservationFilter loginObservationFilter;
+    private final ObservationRegistry observationRegistry;
 
     public SecurityConfig(OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler,
-                         JwtAuthenticationFilter jwtAuthenticationFilter) {
+                         JwtAuthenticationFilter jwtAuthenticationFilter,
+                         LoginAdmissionFilter loginAdmissionFilter,
+                         LoginObservationFilter loginObservationFilter,
+                         ObservationRegistry observationRegistry) {
         this.oAuth2LoginSuccessHandler = oAuth2LoginSuccessHandler;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.loginAdmissionFilter = loginAdmissionFilter;
+        this.loginObservationFilter = loginObservationFilter;
+        this.observationRegistry = observationRegistry;
     }
 
+    /**
+     * API paths authenticate every request by JWT (bearer header or SESSION_TOKEN cookie) and never
+     * create or read an HTTP session, so any instance can serve any request without sticky sessions.
+     */
     @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/api/**")
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/api/public/**").permitAll()
+                .requestMatchers("/api/auth/refresh").permitAll() // authenticated by the refresh token itself
+                .requestMatchers("/api/auth/success").permitAll() // authenticated by the one-time login code
+                .requestMatchers("/api/groups/import", "/api/groups/manual", "/api/groups/auto", "/api/groups/auto/preview").permitAll()
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .anyRequest().authenticated())
+            .exceptionHandling(ex -> ex
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
+
+        http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
+
+    /**
+     * Everything else, chiefly the OAuth login. A session exists only between the authorization
+     * redirect and the callback (it holds the OAuth state); the success handler hands off to
+     * /api/auth/success with a one-time code and drops it, and the security context is never stored in it.
+     */
+    @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        // The stock IdP clients, wrapped so the code exchange and user-info call show up as login stages
+        RestClientAuthorizationCodeTokenResponseClient tokenClient = new RestClientAuthorizationCodeTokenResponseClient();
+        OidcUserService oidcUserService = new OidcUserService();
+
         http
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session
-                .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
-                .maximumSessions(1)
-                .maxSessionsPreventsLogin(false))
+                .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
+            .securityContext(context -> context
+                .securityContextRepository(new RequestAttributeSecurityContextRepository()))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/", "/login", "/login.html", "/static/**", "/error").permitAll()
+                .requestMatchers("/", "/index.html", "/login", "/login.html", "/static/**", "/error").permitAll()
                 .requestMatchers("/login/oauth2/**", "/oauth2/**").permitAll() // OAuth2 endpoints must be permitted
-                .requestMatchers("/api/public/**").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll() // served on management.server.port only
                 .anyRequest().authenticated())
             .oauth2Login(oauth2 -> oauth2
                 .loginPage("/login")
@@ -43,24 +99,21 @@ public class SecurityConfig {
                     .baseUri("/login/oauth2/authorization"))
                 .redirectionEndpoint(redirect -> redirect
                     .baseUri("/login/oauth2/code/*"))
-                .successHandler(oAuth2LoginSuccessHandler)
-                .defaultSuccessUrl("/api/auth/success", true));
+                .tokenEndpoint(token -> token
+                    .accessTokenResponseClient(request -> LoginTracing.stage(observationRegistry, "idp_token_exchange",
+                            () -> tokenClient.getTokenResponse(request))))
+                .userInfoEndpoint(userInfo -> userInfo
+                    .oidcUserService(request -> LoginTracing.stage(observationRegistry, "idp_user_info",
+                            () -> oidcUserService.loadUser(request))))
+                .successHandler(oAuth2LoginSuccessHandler));
 
-        // Support JWT bearer auth in addition to session-based OAuth login
-        http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Limit concurrent OAuth callbacks (code exchange + Graph + upsert) before any of that work starts
+        http.addFilterBefore(loginAdmissionFilter, OAuth2LoginAuthenticationFilter.class);
+        // ... all of which, admission wait included, runs under one login.callback span
+        http.addFilterBefore(loginObservationFilter, LoginAdmissionFilter.class);
 
-        return http.build();
-    }
+        http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
-    @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        http
-                .csrf(csrf -> csrf.disable())
-                .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/groups/import", "/api/groups/manual", "/", "/index.html", "/**/*.js", "/**/*.css").permitAll()
-                        .anyRequest().authenticated()
-                )
-                .httpBasic(Customizer.withDefaults());
         return http.build();
     }
 }
@@ -0,0 +1,125 @@
+package com.scholarsync.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Execution mode. {@code spring.threads.virtual.enabled=true} ({@code VIRTUAL_THREADS=true}) makes
+ * Spring Boot serve requests, {@code @Scheduled} and {@code @Async} work on virtual threads, so
+ * requests blocked on JDBC, the Graph call or an import no longer hold one of a fixed number of
+ * platform threads. Virtual threads need JDK 21; on an older runtime the setting is ignored (and
+ * reported at startup) and requests stay on Tomcat's platform pool. An AOT build ({@code -Pfaststart})
+ * fixes the mode at build time, since Boot picks the executors with {@code @ConditionalOnThreading}:
+ * the property is ignored at runtime there too. The startup report therefore checks the thread that
+ * Tomcat's request executor actually runs, not the property.
+ *
+ * With thread count no longer limiting concurrent database work, {@code app.db.max-concurrent}
+ * wraps the pool in a {@link BoundedDataSource} that bounds it with a fair semaphore instead.
+ */
+@Slf4j
+@Configuration
+public class ThreadingConfig {
+
+    private final Environment environment;
+
+    public ThreadingConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener
+    public void reportMode(ApplicationReadyEvent event) {
+        Executor executor = requestExecutor(event.getApplicationContext());
+        if (executor == null) return; // no embedded Tomcat serving requests
+        boolean virtual = runsOnVirtualThreads(executor);
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (virtual) {
+            log.info("Serving requests on virtual threads");
+        }
+        if (virtual == requested) return;
+        if (requested && !Threading.VIRTUAL.isActive(environment)) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads (needs 21+); using platform threads",
+                    Runtime.version().feature());
+        } else if (AotDetector.useGeneratedArtifacts()) {
+            log.warn("spring.threads.virtual.enabled={} is ignored: this AOT build fixed {} threads at build time"
+                    + " (rebuild with -Dfaststart.aot.args=--spring.threads.virtual.enabled={})", requested, virtual ? "virtual" : "platform", requested);
+        } else {
+            log.warn("spring.threads.virtual.enabled={} but requests run on {} threads", requested, virtual ? "virtual" : "platform");
+        }
+    }
+
+    private static Executor requestExecutor(ApplicationContext context) {
+        if (!(context instanceof WebServerApplicationContext)
+                || !(((WebServerApplicationContext) context).getWebServer() instanceof TomcatWebServer)) {
+            return null;
+        }
+        TomcatWebServer tomcat = (TomcatWebServer) ((WebServerApplicationContext) context).getWebServer();
+        return tomcat.getTomcat().getConnector().getProtocolHandler().getExecutor();
+    }
+
+    /** Runs a probe on the executor: true if it ran on a virtual thread. */
+    static boolean runsOnVirtualThreads(Executor executor) {
+        CompletableFuture<Boolean> probe = new CompletableFuture<>();
+        executor.execute(() -> probe.complete(isVirtual(Thread.currentThread())));
+        try {
+            return probe.get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    // Thread.isVirtual() is JDK 21 API and the baseline compiles for 17
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.db.max-concurrent")
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        int maxConcurrent = environment.getRequiredProperty("app.db.max-concurrent", Integer.class);
+        long maxWaitMillis = environment.getProperty("app.db.max-wait-ms", Long.class, 30000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof BoundedDataSource || maxConcurrent <= 0) {
+                    return bean;
+                }
+                BoundedDataSource bounded = new BoundedDataSource((DataSource) bean, maxConcurrent, maxWaitMillis);
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("db.concurrency.active", bounded, BoundedDataSource::getActive).register(registry);
+                    Gauge.builder("db.concurrency.waiting", bounded, BoundedDataSource::getWaiting).register(registry);
+                });
+                log.info("Database concurrency bounded to {} connections (wait up to {} ms)", maxConcurrent, maxWaitMillis);
+                return bounded;
+            }
+        };
+    }
+}
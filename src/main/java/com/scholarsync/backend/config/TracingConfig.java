@@ -0,0 +1,22 @@
+package com.scholarsync.backend.config;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Span export. Spring Boot sends spans over OTLP when {@code management.otlp.tracing.endpoint} is
+ * set (e.g. a local collector); with {@code app.tracing.log-spans=true} they are also written to the
+ * log, which is enough to follow a login locally without running a collector.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.log-spans", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
@@ -1,26 +1,35 @@
 package com.scholarsync.backend.controller;
 
+import com.scholarsync.backend.exception.InvalidRefreshTokenException;
 import com.scholarsync.backend.model.User;
-import com.scholarsync.backend.service.MicrosoftGraphService;
+import com.scholarsync.backend.security.JwtService;
+import com.scholarsync.backend.security.LoginHandoffService;
+import com.scholarsync.backend.security.RefreshTokenService;
+import com.scholarsync.backend.security.TokenRevocationService;
 import com.scholarsync.backend.service.UserService;
+import io.jsonwebtoken.Claims;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
@@ -30,269 +39,84 @@ import jakarta.servlet.http.HttpSession;
 public class AuthController {
 
     private final UserService userService;
+    private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginHandoffService loginHandoffService;
     private final String professorKey;
+    private final long jwtExpirationMillis;
 
+    /**
+     * Completes an OAuth login. OAuth2LoginSuccessHandler redirects here with a one-time code that
+     * names the user it signed in; the code is all that is needed, so no server session is involved.
+     *
+     * GET /api/auth/success?code=... (public; the code is the credential)
+     */
     @GetMapping("/success")
-    public ResponseEntity<Map<String, Object>> authSuccess(
-            @AuthenticationPrincipal OAuth2User oauth2User,
-            HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> authSuccess(@RequestParam(value = "code", required = false) String code) {
         Map<String, Object> response = new HashMap<>();
 
-        // First, check if user was already saved by OAuth2LoginSuccessHandler
-        // Check session first (for redirects), then request attributes (for forwards)
-        HttpSession session = request.getSession(false);
-        User savedUser = null;
-        if (session != null) {
-            savedUser = (User) session.getAttribute("savedUser");
-        }
-        if (savedUser == null) {
-            savedUser = (User) request.getAttribute("savedUser");
-        }
-
-        if (savedUser != null) {
-            // User was successfully created/updated by OAuth2LoginSuccessHandler
-            response.put("success", true);
-
-            // Check if this was a new registration or existing login
-            Boolean isNewUser = null;
-            if (session != null) {
-                isNewUser = (Boolean) session.getAttribute("isNewUser");
-            }
-            if (isNewUser == null) {
-                isNewUser = (Boolean) request.getAttribute("isNewUser");
-            }
-            if (isNewUser != null && isNewUser) {
-                response.put("message", "Account created and signed in successfully");
-                response.put("isNewUser", true);
-            } else {
-                response.put("message", "Signed in successfully");
-                response.put("isNewUser", false);
-            }
-
-            // authenticationMethod is handled via OAuth flow only
-
-            // User info from database
-            Map<String, Object> userInfo = new HashMap<>();
-            userInfo.put("id", savedUser.getId());
-            userInfo.put("email", savedUser.getEmail());
-            userInfo.put("displayName", savedUser.getDisplayName());
-            userInfo.put("role", savedUser.getRole());
-            userInfo.put("institutionalId", savedUser.getInstitutionalId());
-            userInfo.put("microsoftId", savedUser.getMicrosoftId());
-            userInfo.put("accountCreatedAt", savedUser.getAccountCreatedAt());
-            userInfo.put("lastLoginAt", savedUser.getLastLoginAt());
-
-            response.put("user", userInfo);
-
-            // Microsoft Graph API fetched info (if available from session or request)
-            MicrosoftGraphService.UserProfile microsoftProfile = null;
-            if (session != null) {
-                microsoftProfile = (MicrosoftGraphService.UserProfile) session.getAttribute("microsoftProfile");
-            }
-            if (microsoftProfile == null) {
-                microsoftProfile = (MicrosoftGraphService.UserProfile) request.getAttribute("microsoftProfile");
-            }
-
-            if (microsoftProfile != null) {
-                Map<String, Object> microsoftInfo = new HashMap<>();
-                microsoftInfo.put("id", microsoftProfile.getId());
-                microsoftInfo.put("displayName", microsoftProfile.getDisplayName());
-                microsoftInfo.put("mail", microsoftProfile.getMail());
-                microsoftInfo.put("userPrincipalName", microsoftProfile.getUserPrincipalName());
-                microsoftInfo.put("jobTitle", microsoftProfile.getJobTitle());
-                response.put("microsoftProfile", microsoftInfo);
-            }
-
-            // Clean up session attributes after reading
-            if (session != null) {
-                session.removeAttribute("microsoftProfile");
-                session.removeAttribute("savedUser");
-                session.removeAttribute("isNewUser");
-            }
-
-            return ResponseEntity.ok(response);
+        LoginHandoffService.Handoff handoff = loginHandoffService.redeem(code);
+        Optional<User> user = handoff == null ? Optional.empty() : userService.findById(handoff.getUserId());
+        if (user.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Login code is missing, expired or already used");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
 
-        // Fallback: If savedUser is not in request, try to look up by email
-        if (oauth2User != null) {
-            String email = oauth2User.getAttribute("email");
-            if (email == null) {
-                email = oauth2User.getAttribute("userPrincipalName");
-            }
-
-            Optional<User> user = userService.findByEmail(email);
-
-            if (user.isPresent()) {
-                User userEntity = user.get();
-                response.put("success", true);
-
-                // Check if this was a new registration or existing login
-                Boolean isNewUser = (Boolean) request.getAttribute("isNewUser");
-                if (isNewUser != null && isNewUser) {
-                    response.put("message", "Account created and signed in successfully");
-                    response.put("isNewUser", true);
-                } else {
-                    response.put("message", "Signed in successfully");
-                    response.put("isNewUser", false);
-                }
-
-                // User info from database
-                Map<String, Object> userInfo = new HashMap<>();
-                userInfo.put("id", userEntity.getId());
-                userInfo.put("email", userEntity.getEmail());
-                userInfo.put("displayName", userEntity.getDisplayName());
-                userInfo.put("role", userEntity.getRole());
-                userInfo.put("institutionalId", userEntity.getInstitutionalId());
-                userInfo.put("microsoftId", userEntity.getMicrosoftId());
-                userInfo.put("accountCreatedAt", userEntity.getAccountCreatedAt());
-                userInfo.put("lastLoginAt", userEntity.getLastLoginAt());
-
-                response.put("user", userInfo);
-
-                // Microsoft Graph API fetched info (if available from request)
-                MicrosoftGraphService.UserProfile microsoftProfile =
-                    (MicrosoftGraphService.UserProfile) request.getAttribute("microsoftProfile");
-
-                if (microsoftProfile != null) {
-                    Map<String, Object> microsoftInfo = new HashMap<>();
-                    microsoftInfo.put("id", microsoftProfile.getId());
-                    microsoftInfo.put("displayName", microsoftProfile.getDisplayName());
-                    microsoftInfo.put("mail", microsoftProfile.getMail());
-                    microsoftInfo.put("userPrincipalName", microsoftProfile.getUserPrincipalName());
-                    microsoftInfo.put("jobTitle", microsoftProfile.getJobTitle());
-                    response.put("microsoftProfile", microsoftInfo);
-                }
-            } else {
-                // User not found - try to create from OAuth2User attributes as fallback
-                // This handles cases where Microsoft Graph API call failed in OAuth2LoginSuccessHandler
-                String microsoftId = oauth2User.getAttribute("oid"); // Microsoft Object ID
-                String displayName = oauth2User.getAttribute("name");
-
-                // Extract institutional ID from given_name (e.g., "22-0369-330 Giles Anthony" -> "22-0369-330")
-                // OAuth2User doesn't have jobTitle, but institutional ID is in given_name
-                String givenName = oauth2User.getAttribute("given_name");
-                String institutionalId = null;
-                if (givenName != null && !givenName.isEmpty()) {
-                    // Extract the institutional ID pattern from given_name
-                    // Pattern: "22-0369-330 Giles Anthony" or "2010-12345 Name" or "1643 Name"
-                    java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(
-                        "^(\\d{2}-\\d{4}-\\d{3}|\\d{4}-\\d{5}|\\d{1,4})\\b"
-                    );
-                    java.util.regex.Matcher matcher = pattern.matcher(givenName);
-                    if (matcher.find()) {
-                        institutionalId = matcher.group(1);
-                    }
-                }
-
-                // Fallback: try jobTitle attribute if given_name extraction failed
-                if (institutionalId == null) {
-                    institutionalId = oauth2User.getAttribute("jobTitle");
-                }
-
-                if (microsoftId != null && email != null) {
-                    // Try to create user from OAuth2User attributes
-                    try {
-                        User fallbackUser = userService.createOrUpdateUserFromOAuth(
-                            microsoftId,
-                            email,
-                            displayName,
-                            institutionalId
-                        );
-
-                        response.put("success", true);
-                        response.put("message", "Account created and signed in successfully (fallback)");
-                        response.put("isNewUser", true);
-
-                        Map<String, Object> userInfo = new HashMap<>();
-                        userInfo.put("id", fallbackUser.getId());
-                        userInfo.put("email", fallbackUser.getEmail());
-                        userInfo.put("displayName", fallbackUser.getDisplayName());
-                        userInfo.put("role", fallbackUser.getRole());
-                        userInfo.put("institutionalId", fallbackUser.getInstitutionalId());
-                        userInfo.put("microsoftId", fallbackUser.getMicrosoftId());
-                        userInfo.put("accountCreatedAt", fallbackUser.getAccountCreatedAt());
-                        userInfo.put("lastLoginAt", fallbackUser.getLastLoginAt());
-
-                        response.put("user", userInfo);
-
-                        // Include OAuth2 user details
-                        Map<String, Object> oauth2Info = new HashMap<>();
-                        oauth2Info.put("name", oauth2User.getName());
-                        oauth2Info.put("email", email);
-                        oauth2Info.put("attributes", oauth2User.getAttributes());
-                        response.put("oauth2User", oauth2Info);
-
-                        return ResponseEntity.ok(response);
-                    } catch (Exception e) {
-                        // If creation fails, return error with details
-                        response.put("success", false);
-                        response.put("message", "User not found and failed to create from OAuth2 data");
-                        response.put("error", e.getMessage());
-                    }
-                } else {
-                    response.put("success", false);
-                    response.put("message", "User not found in database and missing required OAuth2 attributes");
-                }
-
-                // Include OAuth2 user details for debugging
-                Map<String, Object> oauth2Info = new HashMap<>();
-                oauth2Info.put("name", oauth2User.getName());
-                oauth2Info.put("email", email);
-                oauth2Info.put("attributes", oauth2User.getAttributes());
-                response.put("oauth2User", oauth2Info);
-
-                // Include Microsoft Graph profile if available from session or request
-                MicrosoftGraphService.UserProfile microsoftProfile = null;
-                if (session != null) {
-                    microsoftProfile = (MicrosoftGraphService.UserProfile) session.getAttribute("microsoftProfile");
-                }
-                if (microsoftProfile == null) {
-                    microsoftProfile = (MicrosoftGraphService.UserProfile) request.getAttribute("microsoftProfile");
-                }
-
-                if (microsoftProfile != null) {
-                    Map<String, Object> microsoftInfo = new HashMap<>();
-                    microsoftInfo.put("id", microsoftProfile.getId());
-                    microsoftInfo.put("displayName", microsoftProfile.getDisplayName());
-                    microsoftInfo.put("mail", microsoftProfile.getMail());
-                    microsoftInfo.put("userPrincipalName", microsoftProfile.getUserPrincipalName());
-                    microsoftInfo.put("jobTitle", microsoftProfile.getJobTitle());
-                    response.put("microsoftProfile", microsoftInfo);
-                }
-            }
+        User savedUser = user.get();
+        response.put("success", true);
+        if (handoff.isNewUser()) {
+            response.put("message", "Account created and signed in successfully");
+            response.put("isNewUser", true);
         } else {
-            response.put("success", false);
-            response.put("message", "Not authenticated");
+            response.put("message", "Signed in successfully");
+            response.put("isNewUser", false);
         }
 
+        // User info from database
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("id", savedUser.getId());
+        userInfo.put("email", savedUser.getEmail());
+        userInfo.put("displayName", savedUser.getDisplayName());
+        userInfo.put("role", savedUser.getRole());
+        userInfo.put("institutionalId", savedUser.getInstitutionalId());
+        userInfo.put("microsoftId", savedUser.getMicrosoftId());
+        userInfo.put("accountCreatedAt", savedUser.getAccountCreatedAt());
+        userInfo.put("lastLoginAt", savedUser.getLastLoginAt());
+        response.put("user", userInfo);
+
+        // The Graph fields the login used, as stored on the user (jobTitle is the institutional ID)
+        Map<String, Object> microsoftInfo = new HashMap<>();
+        microsoftInfo.put("id", savedUser.getMicrosoftId());
+        microsoftInfo.put("displayName", savedUser.getDisplayName());
+        microsoftInfo.put("mail", savedUser.getEmail());
+        microsoftInfo.put("jobTitle", savedUser.getInstitutionalId());
+        response.put("microsoftProfile", microsoftInfo);
+
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> getCurrentUser(@AuthenticationPrincipal OAuth2User oauth2User) {
-        if (oauth2User == null) {
+    public ResponseEntity<Map<String, Object>> getCurrentUser(@AuthenticationPrincipal User principal) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
 
-        String email = oauth2User.getAttribute("email");
-        if (email == null) {
-            email = oauth2User.getAttribute("userPrincipalName");
-        }
-
-        Optional<User> user = userService.findByEmail(email);
+        // The JWT principal only carries id, email and role; read the rest from the database
+        Optional<User> user = userService.findById(principal.getId());
 
         if (user.isEmpty()) {
             return ResponseEntity.status(404).body(Map.of("error", "User not found"));
         }
 
         User userEntity = user.get();
-        Map<String, Object> userInfo = Map.of(
-            "id", userEntity.getId(),
-            "email", userEntity.getEmail(),
-            "displayName", userEntity.getDisplayName(),
-            "role", userEntity.getRole(),
-            "institutionalId", userEntity.getInstitutionalId()
-        );
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("id", userEntity.getId());
+        userInfo.put("email", userEntity.getEmail());
+        userInfo.put("displayName", userEntity.getDisplayName());
+        userInfo.put("role", userEntity.getRole());
+        userInfo.put("institutionalId", userEntity.getInstitutionalId());
 
         return ResponseEntity.ok(userInfo);
     }
@@ -301,14 +125,28 @@ public class AuthController {
      * Logout endpoint for the currently authenticated Microsoft user.
      *
      * This will:
-     * - Invalidate the current HTTP session (removing the Spring Security context)
-     * - Clear the JSESSIONID cookie on the client
+     * - Revoke the JWT (Authorization bearer token or SESSION_TOKEN cookie) until it expires
+     * - Revoke the refresh-token family of the REFRESH_TOKEN cookie, so no token from this login can be renewed
+     * - Invalidate any HTTP session left over from the OAuth redirect
+     * - Clear the JSESSIONID, SESSION_TOKEN and REFRESH_TOKEN cookies on the client
      *
-     * Frontend can call: POST /api/auth/logout with the existing JSESSIONID cookie.
+     * API paths are stateless, so the caller is identified only by its JWT: frontend can call
+     * POST /api/auth/logout with the Authorization bearer header or the SESSION_TOKEN cookie.
      */
     @PostMapping("/logout")
     public ResponseEntity<Map<String, Object>> logout(HttpServletRequest request,
                                                       HttpServletResponse response) {
+        // Revoke the API token so it cannot be replayed for the rest of its lifetime
+        String token = resolveToken(request);
+        if (token != null) {
+            Claims claims = jwtService.parseVerifiedClaims(token);
+            if (claims != null && claims.getExpiration() != null) {
+                tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+            }
+        }
+
+        refreshTokenService.revokeFamilyOf(readCookie(request, RefreshTokenService.COOKIE_NAME));
+
         // Invalidate session if it exists
         HttpSession session = request.getSession(false);
         if (session != null) {
@@ -322,16 +160,104 @@ public class AuthController {
             .httpOnly(true)
             .build();
 
+        ResponseCookie deleteTokenCookie = ResponseCookie.from("SESSION_TOKEN", "")
+            .path("/")
+            .maxAge(0)
+            .httpOnly(true)
+            .sameSite("Lax")
+            .build();
+
         Map<String, Object> body = Map.of(
             "success", true,
             "message", "Logged out successfully"
         );
 
+        ResponseCookie deleteRefreshCookie = ResponseCookie.from(RefreshTokenService.COOKIE_NAME, "")
+            .path("/api/auth")
+            .maxAge(0)
+            .httpOnly(true)
+            .build();
+
         return ResponseEntity.ok()
             .header(HttpHeaders.SET_COOKIE, deleteSessionCookie.toString())
+            .header(HttpHeaders.SET_COOKIE, deleteTokenCookie.toString())
+            .header(HttpHeaders.SET_COOKIE, deleteRefreshCookie.toString())
+            .body(body);
+    }
+
+    private String resolveToken(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return readCookie(request, "SESSION_TOKEN");
+    }
+
+    private String readCookie(HttpServletRequest request, String name) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (name.equals(cookie.getName()) && !cookie.getValue().isEmpty()) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Exchanges the REFRESH_TOKEN cookie for a new JWT and a rotated refresh token.
+     *
+     * No Microsoft OAuth redirect or Graph call is made; the user's current role is read from the database.
+     * Reusing an already-exchanged refresh token revokes every token from that login.
+     *
+     * POST /api/auth/refresh (public; the expired JWT is not required)
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(HttpServletRequest request) {
+        RefreshTokenService.Issued rotated = refreshTokenService.rotate(readCookie(request, RefreshTokenService.COOKIE_NAME));
+
+        Optional<User> user = userService.findById(rotated.getUserId());
+        if (user.isEmpty() || !user.get().isActiveAccount()) {
+            throw new InvalidRefreshTokenException("User no longer active");
+        }
+
+        String jwt = jwtService.generateToken(user.get());
+        ResponseCookie tokenCookie = ResponseCookie.from("SESSION_TOKEN", jwt)
+            .httpOnly(true)
+            .path("/")
+            .maxAge(Duration.ofMillis(jwtExpirationMillis))
+            .sameSite("Lax")
+            .build();
+        ResponseCookie refreshCookie = ResponseCookie.from(RefreshTokenService.COOKIE_NAME, rotated.getToken())
+            .httpOnly(true)
+            .path("/api/auth")
+            .maxAge(Duration.between(Instant.now(), rotated.getExpiresAt()))
+            .sameSite("Lax")
+            .build();
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("token", jwt);
+        body.put("expiresIn", jwtExpirationMillis);
+
+        return ResponseEntity.ok()
+            .header(HttpHeaders.SET_COOKIE, tokenCookie.toString())
+            .header(HttpHeaders.SET_COOKIE, refreshCookie.toString())
             .body(body);
     }
 
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRefresh(InvalidRefreshTokenException ex) {
+        ResponseCookie deleteRefreshCookie = ResponseCookie.from(RefreshTokenService.COOKIE_NAME, "")
+            .path("/api/auth")
+            .maxAge(0)
+            .httpOnly(true)
+            .build();
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+            .header(HttpHeaders.SET_COOKIE, deleteRefreshCookie.toString())
+            .body(Map.of("success", false, "message", ex.getMessage()));
+    }
+
     /**
      * Professor key check endpoint for frontend validation.
      * 
@@ -351,8 +277,19 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Forbidden");
     }
 
-    public AuthController(UserService userService, @Value("${app.professor.key:}") String professorKey) {
+    public AuthController(UserService userService,
+                          JwtService jwtService,
+                          TokenRevocationService tokenRevocationService,
+                          RefreshTokenService refreshTokenService,
+                          LoginHandoffService loginHandoffService,
+                          @Value("${app.professor.key:}") String professorKey,
+                          @Value("${jwt.expiration:1800000}") long jwtExpirationMillis) {
         this.userService = userService;
+        this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
+        this.loginHandoffService = loginHandoffService;
+        this.jwtExpirationMillis = jwtExpirationMillis;
         this.professorKey = (professorKey == null || professorKey.isEmpty()) ? "" : professorKey;
     }
 }
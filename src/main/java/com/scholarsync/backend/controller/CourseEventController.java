@@ -0,0 +1,43 @@
+package com.scholarsync.backend.controller;
+
+import com.scholarsync.backend.dto.CourseChanges;
+import com.scholarsync.backend.service.CourseChangeService;
+import com.scholarsync.backend.service.CourseEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class CourseEventController {
+
+    private final CourseEventPublisher courseEventPublisher;
+    private final CourseChangeService courseChangeService;
+
+    public CourseEventController(CourseEventPublisher courseEventPublisher, CourseChangeService courseChangeService) {
+        this.courseEventPublisher = courseEventPublisher;
+        this.courseChangeService = courseChangeService;
+    }
+
+    /**
+     * Server-Sent Events stream of group changes for a course (GROUP_CREATED, GROUP_CHANGED).
+     */
+    @GetMapping(path = "/api/courses/{courseId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCourseEvents(@PathVariable Long courseId) {
+        return courseEventPublisher.subscribe(courseId);
+    }
+
+    /**
+     * Students and groups of the course changed after change sequence {@code since}; {@code since=0}
+     * returns the whole roster. Clients keep the roster locally and call this again with the returned
+     * {@code seq}, e.g. when an event arrives on the stream above.
+     */
+    @GetMapping("/api/courses/{courseId}/changes")
+    public CourseChanges changes(@PathVariable Long courseId, @RequestParam(defaultValue = "0") long since) {
+        return courseChangeService.changesSince(courseId, since);
+    }
+}
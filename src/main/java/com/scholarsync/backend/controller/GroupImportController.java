@@ -1,7 +1,10 @@
 package com.scholarsync.backend.controller;
 
+import com.scholarsync.backend.dto.AutoGroupPlan;
+import com.scholarsync.backend.dto.AutoGroupRequest;
 import com.scholarsync.backend.exception.ImportValidationException;
 import com.scholarsync.backend.model.GroupEntity;
+import com.scholarsync.backend.service.AutoGroupingService;
 import com.scholarsync.backend.service.GroupImportService;
 import java.util.HashMap;
 import java.util.List;
@@ -21,20 +24,27 @@ import com.scholarsync.backend.dto.GroupCreateRequest;
 public class GroupImportController {
 
     private final GroupImportService importService;
+    private final AutoGroupingService autoGroupingService;
     private final String professorKey;
 
-    public GroupImportController(GroupImportService importService, @org.springframework.beans.factory.annotation.Value("${app.professor.key:}") String professorKey) {
+    public GroupImportController(GroupImportService importService, AutoGroupingService autoGroupingService,
+            @org.springframework.beans.factory.annotation.Value("${app.professor.key:}") String professorKey) {
         this.importService = importService;
+        this.autoGroupingService = autoGroupingService;
         this.professorKey = professorKey;
     }
 
+    private boolean isProfessorKeyValid(String key) {
+        // If a professor key is configured, require it for professor operations
+        String configured = this.professorKey == null ? "" : this.professorKey;
+        return configured.isEmpty() || configured.equals(key);
+    }
+
     @CrossOrigin(origins = "http://localhost:5173")
     @PostMapping(path = "/api/groups/import", consumes = {"multipart/form-data"})
     public ResponseEntity<?> importGroups(@RequestParam("file") MultipartFile file, @RequestParam("courseId") Long courseId,
             @org.springframework.web.bind.annotation.RequestHeader(value = "X-Professor-Key", required = false) String key) {
-        // If a professor key is configured, require it for import operations
-        String configured = this.professorKey == null ? "" : this.professorKey;
-        if (configured != null && !configured.isEmpty() && (key == null || !configured.equals(key))) {
+        if (!isProfessorKeyValid(key)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Forbidden: missing or invalid professor key");
         }
         List<GroupEntity> created = importService.importFromExcel(file, courseId);
@@ -48,6 +58,28 @@ public class GroupImportController {
         return ResponseEntity.ok(created);
     }
 
+    @CrossOrigin(origins = "http://localhost:5173")
+    @PostMapping(path = "/api/groups/auto/preview", consumes = {"application/json"})
+    public ResponseEntity<?> previewAutoGroups(@RequestBody AutoGroupRequest req,
+            @org.springframework.web.bind.annotation.RequestHeader(value = "X-Professor-Key", required = false) String key) {
+        if (!isProfessorKeyValid(key)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Forbidden: missing or invalid professor key");
+        }
+        AutoGroupPlan plan = autoGroupingService.preview(req.getCourseId(), req.getGroupSize(), req.isKeepPartialGroups(), req.isBalanceSizes());
+        return ResponseEntity.ok(plan);
+    }
+
+    @CrossOrigin(origins = "http://localhost:5173")
+    @PostMapping(path = "/api/groups/auto", consumes = {"application/json"})
+    public ResponseEntity<?> applyAutoGroups(@RequestBody AutoGroupRequest req,
+            @org.springframework.web.bind.annotation.RequestHeader(value = "X-Professor-Key", required = false) String key) {
+        if (!isProfessorKeyValid(key)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Forbidden: missing or invalid professor key");
+        }
+        AutoGroupPlan plan = autoGroupingService.apply(req.getCourseId(), req.getGroupSize(), req.isKeepPartialGroups(), req.isBalanceSizes());
+        return ResponseEntity.ok(plan);
+    }
+
     @ExceptionHandler(ImportValidationException.class)
     public ResponseEntity<?> handleValidation(ImportValidationException ex) {
         Map<String, Object> body = new HashMap<>();
@@ -0,0 +1,31 @@
+package com.scholarsync.backend.controller;
+
+import com.scholarsync.backend.service.SlowRequestLog;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin-only (see SecurityConfig) view of recent slow requests.
+ */
+@RestController
+@RequestMapping("/api/admin/monitoring")
+public class MonitoringAdminController {
+
+    private final SlowRequestLog slowRequestLog;
+
+    public MonitoringAdminController(SlowRequestLog slowRequestLog) {
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    @GetMapping("/slow-requests")
+    public ResponseEntity<Map<String, Object>> slowRequests() {
+        Map<String, Object> body = new HashMap<>();
+        body.put("thresholdMs", slowRequestLog.getThresholdMillis());
+        body.put("requests", slowRequestLog.snapshot());
+        return ResponseEntity.ok(body);
+    }
+}
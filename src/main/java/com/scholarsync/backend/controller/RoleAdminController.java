@@ -0,0 +1,42 @@
+package com.scholarsync.backend.controller;
+
+import com.scholarsync.backend.service.RoleReevaluationJob;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin-only (see SecurityConfig) endpoints for applying changed role rules to existing users.
+ */
+@RestController
+@RequestMapping("/api/admin/roles")
+public class RoleAdminController {
+
+    private final RoleReevaluationJob roleReevaluationJob;
+
+    public RoleAdminController(RoleReevaluationJob roleReevaluationJob) {
+        this.roleReevaluationJob = roleReevaluationJob;
+    }
+
+    @PostMapping("/reevaluate")
+    public ResponseEntity<?> startReevaluation() {
+        boolean started = roleReevaluationJob.start();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(roleReevaluationJob.getProgress());
+    }
+
+    @GetMapping("/reevaluate")
+    public ResponseEntity<?> reevaluationProgress() {
+        return ResponseEntity.ok(roleReevaluationJob.getProgress());
+    }
+
+    @PostMapping("/reevaluate/cancel")
+    public ResponseEntity<?> cancelReevaluation() {
+        boolean cancelled = roleReevaluationJob.cancel();
+        return ResponseEntity.status(cancelled ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(roleReevaluationJob.getProgress());
+    }
+}
@@ -6,12 +6,16 @@ import com.scholarsync.backend.model.GroupEntity;
 import com.scholarsync.backend.model.Student;
 import com.scholarsync.backend.repository.GroupRepository;
 import com.scholarsync.backend.repository.StudentRepository;
+import com.scholarsync.backend.service.RosterSnapshotCache;
 import java.util.Optional;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import java.util.stream.Collectors;
@@ -23,10 +27,13 @@ public class StudentController {
 
     private final StudentRepository studentRepository;
     private final GroupRepository groupRepository;
+    private final RosterSnapshotCache rosterSnapshotCache;
 
-    public StudentController(StudentRepository studentRepository, GroupRepository groupRepository) {
+    public StudentController(StudentRepository studentRepository, GroupRepository groupRepository,
+                             RosterSnapshotCache rosterSnapshotCache) {
         this.studentRepository = studentRepository;
         this.groupRepository = groupRepository;
+        this.rosterSnapshotCache = rosterSnapshotCache;
     }
 
     @CrossOrigin(origins = "http://localhost:5173")
@@ -54,7 +61,19 @@ public class StudentController {
     }
 
     @GetMapping("/api/students")
-    public ResponseEntity<?> listStudents(@RequestParam Long courseId, @RequestParam(required = false) String q) {
+    public ResponseEntity<?> listStudents(@RequestParam Long courseId, @RequestParam(required = false) String q,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (q == null || q.isBlank()) {
+            // the whole roster: pre-serialized bytes, gzipped when the client takes it
+            RosterSnapshotCache.Snapshot snapshot = rosterSnapshotCache.get(courseId);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(acceptEncoding)) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+            }
+            return response.body(snapshot.getJson());
+        }
         List<Student> list = studentRepository.findAllByCourseId(courseId);
         if (q != null && !q.isBlank()) {
             String lq = q.toLowerCase();
@@ -67,4 +86,15 @@ public class StudentController {
         List<StudentDto> dtos = list.stream().map(s -> new StudentDto(s.getStudentId(), s.getCourseId(), s.getGroupId(), s.getLastName(), s.getFirstName(), s.getEmail())).collect(Collectors.toList());
         return ResponseEntity.ok(dtos);
     }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
@@ -1,5 +1,6 @@
 package com.scholarsync.backend.controller;
 
+import com.scholarsync.backend.dto.RoleRule;
 import com.scholarsync.backend.model.Role;
 import com.scholarsync.backend.model.User;
 import com.scholarsync.backend.service.RoleDeterminationService;
@@ -44,34 +45,14 @@ public class TestController {
             return ResponseEntity.badRequest().body(response);
         }
         
-        Role determinedRole = roleDeterminationService.determineRole(institutionalId);
+        RoleRule rule = roleDeterminationService.determinePattern(institutionalId);
         
         response.put("success", true);
         response.put("institutionalId", institutionalId);
-        response.put("determinedRole", determinedRole.toString());
-        response.put("patternMatched", determinePattern(institutionalId));
+        response.put("determinedRole", rule != null ? rule.getRole().toString() : Role.UNKNOWN.toString());
+        response.put("patternMatched", rule != null ? rule.getDescription() : "UNKNOWN");
         
         return ResponseEntity.ok(response);
     }
 
-    private String determinePattern(String institutionalId) {
-        if (institutionalId == null || institutionalId.isEmpty()) {
-            return "NONE";
-        }
-        if (institutionalId.matches("\\d{2}-\\d{4}-\\d{3}")) {
-            return "STUDENT_PATTERN_1 (YY-####-###)";
-        }
-        if (institutionalId.matches("\\d{4}-\\d{5}")) {
-            return "STUDENT_PATTERN_2 (YYYY-#####)";
-        }
-        if (institutionalId.matches("\\d{1,4}")) {
-            return "TEACHER_PATTERN (Plain number 1–4 digits)";
-        }
-        if (institutionalId.matches(".*ADMIN.*|.*ADMINISTRATOR.*")) {
-            return "ADMIN_PATTERN";
-        }
-        return "UNKNOWN";
-    }
-
 }
-
@@ -0,0 +1,30 @@
+package com.scholarsync.backend.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutoGroupPlan {
+    private Long courseId;
+    private int groupSize;
+    private int unassignedStudents;
+    private int groupsFilled;
+    private int groupsCreated;
+    private List<PlannedGroup> groups;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PlannedGroup {
+        /** Existing group ID when filling a partial group, null for a group that will be created. */
+        private String groupId;
+        private String groupName;
+        private boolean existing;
+        private String leaderStudentId;
+        private List<String> addedStudentIds;
+    }
+}
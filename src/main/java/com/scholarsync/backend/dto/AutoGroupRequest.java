@@ -0,0 +1,15 @@
+package com.scholarsync.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutoGroupRequest {
+    private Long courseId;
+    private Integer groupSize;
+    private boolean keepPartialGroups;
+    private boolean balanceSizes;
+}
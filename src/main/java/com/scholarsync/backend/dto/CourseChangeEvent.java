@@ -0,0 +1,26 @@
+package com.scholarsync.backend.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact roster change pushed to course subscribers. {@code studentIds} are the students
+ * assigned to {@code groupId} by this change, so clients can drop them from their available list.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseChangeEvent {
+    public enum Type {
+        GROUP_CREATED,
+        GROUP_CHANGED
+    }
+
+    private Type type;
+    private Long courseId;
+    private String groupId;
+    private String groupName;
+    private List<String> studentIds;
+}
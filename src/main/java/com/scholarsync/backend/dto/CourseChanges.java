@@ -0,0 +1,24 @@
+package com.scholarsync.backend.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Roster rows of a course changed after {@code since}, up to change sequence {@code seq}; the client
+ * stores {@code seq} and asks for {@code since=seq} next time. {@code reset} means {@code since} cannot
+ * be answered with a delta (too many changes, or a sequence this server never issued): drop the local
+ * roster and load it again with {@code since=0}, which always returns every row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseChanges {
+    private Long courseId;
+    private long since;
+    private long seq;
+    private boolean reset;
+    private List<StudentDto> students;
+    private List<GroupDto> groups;
+}
@@ -0,0 +1,23 @@
+package com.scholarsync.backend.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleReevaluationProgress {
+    public enum Status { IDLE, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    private Status status;
+    /** Row count when the run started; users created during the run may push {@code scanned} past it. */
+    private long totalUsers;
+    private long scanned;
+    private long updated;
+    private int percent;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,21 @@
+package com.scholarsync.backend.dto;
+
+import com.scholarsync.backend.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of the role-rule table: institutional IDs fully matching {@code pattern} (a Java regex)
+ * get {@code role}. Rules are tried from the highest {@code priority} down; the first match wins.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleRule {
+    private String id;
+    private String pattern;
+    private Role role;
+    private int priority;
+    private String description;
+}
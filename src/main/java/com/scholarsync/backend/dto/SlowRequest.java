@@ -0,0 +1,22 @@
+package com.scholarsync.backend.dto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowRequest {
+    private Instant at;
+    private String method;
+    /** Matched route template, e.g. /api/students/{studentId}. */
+    private String route;
+    private String path;
+    private int status;
+    private long durationMs;
+    private int dbStatements;
+    private long dbTimeMs;
+    private long dbConnectionWaitMs;
+}
@@ -0,0 +1,24 @@
+package com.scholarsync.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Last change sequence number handed out for a course's roster. */
+@Entity
+@Table(name = "course_change_seq")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseChangeSequence {
+    @Id
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+}
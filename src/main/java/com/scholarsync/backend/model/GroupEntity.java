@@ -4,6 +4,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.time.Instant;
 import java.util.List;
@@ -12,7 +13,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "groups")
+@Table(name = "groups", indexes = @Index(name = "idx_groups_course_change_seq", columnList = "course_id, change_seq"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,4 +40,8 @@ public class GroupEntity {
 
     @Column(name = "created_at")
     private Instant createdAt;
+
+    /** Course change sequence of the last write to this group (see CourseChangeSequencer). */
+    @Column(name = "change_seq")
+    private Long changeSeq;
 }
@@ -3,13 +3,14 @@ package com.scholarsync.backend.model;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "students")
+@Table(name = "students", indexes = @Index(name = "idx_students_course_change_seq", columnList = "course_id, change_seq"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,4 +33,8 @@ public class Student {
 
     @Column(name = "email")
     private String email;
+
+    /** Course change sequence of the last write to this row (see CourseChangeSequencer); null if never changed here. */
+    @Column(name = "change_seq")
+    private Long changeSeq;
 }
@@ -52,4 +52,12 @@ public class User {
     @Column(name = "is_active", nullable = false)
     @Builder.Default
     private Boolean isActive = true;
+
+    /**
+     * Whether the account may be used: only an explicit {@code false} deactivates it, a missing flag
+     * counts as active. Every check (bearer tokens, refresh) goes through this so they agree.
+     */
+    public boolean isActiveAccount() {
+        return !Boolean.FALSE.equals(isActive);
+    }
 }
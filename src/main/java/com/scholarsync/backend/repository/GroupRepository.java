@@ -1,9 +1,19 @@
 package com.scholarsync.backend.repository;
 
 import com.scholarsync.backend.model.GroupEntity;
+import java.util.List;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface GroupRepository extends JpaRepository<GroupEntity, String> {
+    @EntityGraph(attributePaths = "memberStudentIds")
+    List<GroupEntity> findAllByCourseId(Long courseId);
+
+    @EntityGraph(attributePaths = "memberStudentIds")
+    @Query("select g from GroupEntity g where g.courseId = :courseId and g.changeSeq > :since")
+    List<GroupEntity> findChangedSince(@Param("courseId") Long courseId, @Param("since") long since);
 }
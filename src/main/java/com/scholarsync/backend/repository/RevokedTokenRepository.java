@@ -0,0 +1,31 @@
+package com.scholarsync.backend.repository;
+
+import com.scholarsync.backend.model.RevokedToken;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    @Query("select r.jti from RevokedToken r where r.expiresAt > :now")
+    List<String> findActiveJtis(@Param("now") Instant now);
+
+    @Query("select r.jti from RevokedToken r where r.revokedAt > :since and r.expiresAt > :now")
+    List<String> findActiveJtisRevokedAfter(@Param("since") Instant since, @Param("now") Instant now);
+
+    /** Plain INSERT: unlike {@code save} it never merges, so a jti that is already present fails with a duplicate key. */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into revoked_tokens (jti, expires_at, revoked_at) values (:jti, :expiresAt, :revokedAt)", nativeQuery = true)
+    void insert(@Param("jti") String jti, @Param("expiresAt") Instant expiresAt, @Param("revokedAt") Instant revokedAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -2,11 +2,20 @@ package com.scholarsync.backend.repository;
 
 import com.scholarsync.backend.model.Student;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, String> {
     List<Student> findAllByStudentIdIn(List<String> studentIds);
     List<Student> findAllByCourseId(Long courseId);
+
+    @Query("select s from Student s where s.courseId = :courseId and (s.groupId is null or s.groupId = '') order by s.studentId")
+    List<Student> findUnassignedByCourseId(@Param("courseId") Long courseId);
+
+    @Query("select s from Student s where s.courseId = :courseId and s.changeSeq > :since order by s.changeSeq")
+    List<Student> findChangedSince(@Param("courseId") Long courseId, @Param("since") long since, Pageable page);
 }
@@ -2,9 +2,16 @@ package com.scholarsync.backend.repository;
 
 import com.scholarsync.backend.model.Role;
 import com.scholarsync.backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,6 +27,31 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     // Find users by role (useful for filtering students, teachers, etc.)
     List<User> findByRole(Role role);
+
+    /** Moves lastLoginAt forward for a batch of users; never overwrites a later value. */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.lastLoginAt = :loginAt where u.id in :ids and (u.lastLoginAt is null or u.lastLoginAt < :loginAt)")
+    int updateLastLoginAt(@Param("ids") Collection<UUID> ids, @Param("loginAt") LocalDateTime loginAt);
+
+    /** The columns role re-evaluation needs, read without loading managed entities. */
+    interface RoleView {
+        UUID getId();
+        String getInstitutionalId();
+        Role getRole();
+    }
+
+    // Keyset pages in id order: each page is one short query, and deep pages cost the same as the first
+    @Query("select u.id as id, u.institutionalId as institutionalId, u.role as role from User u order by u.id")
+    List<RoleView> findRolePage(Pageable page);
+
+    @Query("select u.id as id, u.institutionalId as institutionalId, u.role as role from User u where u.id > :after order by u.id")
+    List<RoleView> findRolePageAfter(@Param("after") UUID after, Pageable page);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.role = :role where u.id in :ids and u.role <> :role")
+    int updateRole(@Param("ids") Collection<UUID> ids, @Param("role") Role role);
 }
 
 
@@ -3,11 +3,13 @@ package com.scholarsync.backend.security;
 import com.scholarsync.backend.model.Role;
 import com.scholarsync.backend.model.User;
 import com.scholarsync.backend.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -20,13 +22,30 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    static final String SESSION_COOKIE = "SESSION_TOKEN";
+
     private final JwtService jwtService;
     private final UserService userService;
+    private final UserVersionTable userVersionTable;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean stateless;
+
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserService userService,
+                                   UserVersionTable userVersionTable,
+                                   TokenRevocationService tokenRevocationService,
+                                   @Value("${jwt.stateless-auth:true}") boolean stateless) {
+        this.jwtService = jwtService;
+        this.userService = userService;
+        this.userVersionTable = userVersionTable;
+        this.tokenRevocationService = tokenRevocationService;
+        this.stateless = stateless;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -38,32 +57,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
-        if (!StringUtils.hasText(authHeader) || !authHeader.startsWith("Bearer ")) {
+        String token = resolveToken(request);
+        if (token == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String token = authHeader.substring(7);
-
-        if (!jwtService.isTokenValid(token)) {
+        // Verify once; the claims are reused below instead of re-parsing the token
+        Claims claims = jwtService.parseVerifiedClaims(token);
+        if (claims == null || tokenRevocationService.isRevoked(claims.getId())) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String email = jwtService.extractEmail(token);
-        if (!StringUtils.hasText(email)) {
+        User user = stateless ? principalFromClaims(claims) : loadUser(claims);
+        if (user == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        Optional<User> userOpt = userService.findByEmail(email);
-        if (userOpt.isEmpty()) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        User user = userOpt.get();
         Role role = user.getRole();
 
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
@@ -76,6 +88,64 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
 
+    /**
+     * Builds the principal from the verified claims alone. The result is a detached, partial User
+     * (id, email, role, microsoftId) and must not be saved. Role changes and deactivation are
+     * caught through the in-memory version table instead of a query.
+     */
+    private User principalFromClaims(Claims claims) {
+        String email = claims.get("email", String.class);
+        String roleName = claims.get("role", String.class);
+        if (!StringUtils.hasText(email) || !StringUtils.hasText(roleName) || claims.getSubject() == null) {
+            return null;
+        }
+        UUID userId;
+        Role role;
+        try {
+            userId = UUID.fromString(claims.getSubject());
+            role = Role.valueOf(roleName);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Integer version = claims.get(JwtService.VERSION_CLAIM, Integer.class);
+        if (!userVersionTable.isCurrent(userId, roleName, version != null ? version : 0)) {
+            return null;
+        }
+        return User.builder()
+                .id(userId)
+                .email(email)
+                .role(role)
+                .microsoftId(claims.get("microsoftId", String.class))
+                .build();
+    }
+
+    /**
+     * Bearer header first, then the SESSION_TOKEN cookie set at login (browsers carry no server
+     * session on API paths, so the cookie is how they authenticate).
+     */
+    private String resolveToken(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(authHeader) && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (SESSION_COOKIE.equals(cookie.getName()) && StringUtils.hasText(cookie.getValue())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
 
+    private User loadUser(Claims claims) {
+        String email = claims.get("email", String.class);
+        if (!StringUtils.hasText(email)) {
+            return null;
+        }
+        Optional<User> userOpt = userService.findByEmail(email);
+        return userOpt.orElse(null);
+    }
+}
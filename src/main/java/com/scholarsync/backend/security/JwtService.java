@@ -2,6 +2,8 @@ package com.scholarsync.backend.security;
 
 import com.scholarsync.backend.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -9,26 +11,74 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    /** Claim holding the user's {@link UserVersionTable} version at issuance. */
+    public static final String VERSION_CLAIM = "ver";
 
-    @Value("${jwt.expiration:1800000}")
-    private long expirationMillis;
+    private final UserVersionTable userVersionTable;
+    private final String secret;
+    private final long expirationMillis;
+
+    // Built once on first use (not at startup, so a missing secret only fails token operations)
+    private volatile Key signingKey;
+    private volatile JwtParser parser;
+
+    /**
+     * Verified claims keyed by the SHA-256 of the token, so a token seen again skips base64/JSON
+     * decoding and HMAC verification. Entries carry the token's own expiry and are never served past it.
+     */
+    private final Map<ByteBuffer, CachedClaims> verifiedClaims = new ConcurrentHashMap<>();
+    private final int claimsCacheMaxSize;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private static final class CachedClaims {
+        final Claims claims;
+        final long expiresAtMillis;
+
+        CachedClaims(Claims claims, long expiresAtMillis) {
+            this.claims = claims;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    public JwtService(UserVersionTable userVersionTable,
+                      @Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration:1800000}") long expirationMillis,
+                      @Value("${jwt.claims-cache.max-size:10000}") int claimsCacheMaxSize) {
+        this.userVersionTable = userVersionTable;
+        this.secret = secret;
+        this.expirationMillis = expirationMillis;
+        this.claimsCacheMaxSize = claimsCacheMaxSize;
+    }
 
     public String generateToken(User user) {
         Instant now = Instant.now();
         Instant expiry = now.plusMillis(expirationMillis);
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getId().toString())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiry))
@@ -36,18 +86,26 @@ public class JwtService {
                         "email", user.getEmail(),
                         "role", user.getRole() != null ? user.getRole().name() : "UNKNOWN",
                         "auth_method", "MICROSOFT_OAUTH",
-                        "microsoftId", user.getMicrosoftId()
+                        "microsoftId", user.getMicrosoftId(),
+                        VERSION_CLAIM, userVersionTable.currentVersion(user.getId())
                 ))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token) {
+        return parseVerifiedClaims(token) != null;
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or null if it is malformed, forged or expired.
+     * Callers that need several claims should use this instead of the individual extract methods.
+     */
+    public Claims parseVerifiedClaims(String token) {
         try {
-            getClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            return getClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
 
@@ -65,17 +123,58 @@ public class JwtService {
     }
 
     private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        ByteBuffer digest = digest(token);
+        long now = System.currentTimeMillis();
+        CachedClaims cached = verifiedClaims.get(digest);
+        if (cached != null) {
+            if (now < cached.expiresAtMillis) {
+                return cached.claims;
+            }
+            verifiedClaims.remove(digest, cached);
+        }
+
+        Claims claims = getParser().parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            cache(digest, new CachedClaims(claims, expiration.getTime()), now);
+        }
+        return claims;
     }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private void cache(ByteBuffer digest, CachedClaims entry, long now) {
+        if (verifiedClaims.size() >= claimsCacheMaxSize) {
+            verifiedClaims.values().removeIf(c -> c.expiresAtMillis <= now);
+            // still full of live tokens: shed an arbitrary tenth rather than growing without bound
+            Iterator<ByteBuffer> it = verifiedClaims.keySet().iterator();
+            int toShed = verifiedClaims.size() - (claimsCacheMaxSize - claimsCacheMaxSize / 10);
+            while (toShed-- > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        verifiedClaims.put(digest, entry);
     }
-}
 
+    private JwtParser getParser() {
+        JwtParser p = parser;
+        if (p == null) {
+            p = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = p;
+        }
+        return p;
+    }
 
+    private Key getSigningKey() {
+        Key k = signingKey;
+        if (k == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(secret);
+            k = Keys.hmacShaKeyFor(keyBytes);
+            signingKey = k;
+        }
+        return k;
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
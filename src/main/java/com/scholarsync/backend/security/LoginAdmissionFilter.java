@@ -0,0 +1,114 @@
+package com.scholarsync.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for OAuth callbacks ({@code /login/oauth2/code/*}). Each callback exchanges the
+ * code, fetches the Graph profile, upserts the user and signs tokens, so only
+ * {@code app.login.admission.max-concurrent} run at once. Up to {@code max-queue} more wait in FIFO
+ * order for at most {@code max-wait-ms}; anything beyond that gets an immediate 503 with
+ * {@code Retry-After}, whose page reloads the same callback URL. The authorization code has not been
+ * redeemed at that point, so the retry completes the login normally.
+ */
+@Component
+public class LoginAdmissionFilter extends OncePerRequestFilter {
+
+    static final String CALLBACK_PREFIX = "/login/oauth2/code/";
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMillis;
+    private final int retryAfterSeconds;
+
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public LoginAdmissionFilter(@Value("${app.login.admission.max-concurrent:32}") int maxConcurrent,
+                                @Value("${app.login.admission.max-queue:64}") int maxQueue,
+                                @Value("${app.login.admission.max-wait-ms:2000}") long maxWaitMillis,
+                                @Value("${app.login.admission.retry-after-seconds:2}") int retryAfterSeconds,
+                                MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxQueue = maxQueue;
+        this.maxWaitMillis = maxWaitMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        Gauge.builder("login.admission.active", this, f -> f.maxConcurrent - f.permits.availablePermits()).register(meterRegistry);
+        Gauge.builder("login.admission.queued", waiting, AtomicInteger::get).register(meterRegistry);
+        this.rejectedQueueFull = Counter.builder("login.admission.rejected").tag("reason", "queue_full").register(meterRegistry);
+        this.rejectedTimeout = Counter.builder("login.admission.rejected").tag("reason", "wait_timeout").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + CALLBACK_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // timed tryAcquire honours fairness, so a newcomer cannot jump ahead of queued callbacks
+        if (!tryAcquire(0)) {
+            if (waiting.incrementAndGet() > maxQueue) {
+                waiting.decrementAndGet();
+                rejectedQueueFull.increment();
+                sendRetryLater(response);
+                return;
+            }
+            boolean admitted;
+            try {
+                admitted = tryAcquire(maxWaitMillis);
+            } finally {
+                waiting.decrementAndGet();
+            }
+            if (!admitted) {
+                rejectedTimeout.increment();
+                sendRetryLater(response);
+                return;
+            }
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean tryAcquire(long timeoutMillis) {
+        try {
+            return permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void sendRetryLater(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("text/html");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("<!DOCTYPE html><html><head><meta http-equiv=\"refresh\" content=\"" + retryAfterSeconds
+                + "\"><title>Signing you in</title></head><body><p>Lots of people are signing in right now."
+                + " Retrying in a moment&hellip;</p></body></html>");
+    }
+}
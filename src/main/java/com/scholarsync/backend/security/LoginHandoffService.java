@@ -0,0 +1,128 @@
+package com.scholarsync.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * One-time codes that carry the result of an OAuth login across the redirect to
+ * {@code /api/auth/success}, in place of HttpSession attributes. A code is a compact signed token
+ * (user id, new-user flag, a few seconds of validity: {@code app.login.handoff-ttl-ms}, 10s by
+ * default, enough for the browser to follow the redirect) so any instance can redeem it without
+ * shared session state. It is a bearer code in a URL, so it should not outlive the redirect by much.
+ *
+ * Codes are signed with a key derived from {@code jwt.secret}, so they can never pass as API tokens
+ * and vice versa. Redeeming one inserts its jti into the {@link TokenRevocationService} list; the
+ * insert fails on a jti that is already there, so a code redeems once across all instances.
+ */
+@Service
+public class LoginHandoffService {
+
+    private static final String PURPOSE = "login-handoff";
+
+    private final TokenRevocationService tokenRevocationService;
+    private final String secret;
+    private final long ttlMillis;
+
+    private volatile Key signingKey;
+    private volatile JwtParser parser;
+
+    public LoginHandoffService(TokenRevocationService tokenRevocationService,
+                               @Value("${jwt.secret}") String secret,
+                               @Value("${app.login.handoff-ttl-ms:10000}") long ttlMillis) {
+        this.tokenRevocationService = tokenRevocationService;
+        this.secret = secret;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /** What the login handler learned, as recovered from a redeemed code. */
+    public static final class Handoff {
+        private final UUID userId;
+        private final boolean newUser;
+
+        Handoff(UUID userId, boolean newUser) {
+            this.userId = userId;
+            this.newUser = newUser;
+        }
+
+        public UUID getUserId() {
+            return userId;
+        }
+
+        public boolean isNewUser() {
+            return newUser;
+        }
+    }
+
+    public String issue(UUID userId, boolean newUser) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(userId.toString())
+                .setExpiration(Date.from(now.plusMillis(ttlMillis)))
+                .claim("new", newUser)
+                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Verifies and consumes a code.
+     *
+     * @return the handoff, or null if the code is missing, forged, expired or already used
+     */
+    public Handoff redeem(String code) {
+        if (code == null || code.isEmpty()) return null;
+        Claims claims;
+        UUID userId;
+        try {
+            claims = getParser().parseClaimsJws(code).getBody();
+            userId = UUID.fromString(claims.getSubject());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (!tokenRevocationService.consume(claims.getId(), claims.getExpiration().toInstant())) {
+            return null;
+        }
+        return new Handoff(userId, Boolean.TRUE.equals(claims.get("new", Boolean.class)));
+    }
+
+    private JwtParser getParser() {
+        JwtParser p = parser;
+        if (p == null) {
+            p = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = p;
+        }
+        return p;
+    }
+
+    private Key getSigningKey() {
+        Key k = signingKey;
+        if (k == null) {
+            // HMAC(jwt.secret, purpose): a separate key, so codes and API tokens do not verify as each other
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(Decoders.BASE64.decode(secret), "HmacSHA256"));
+                k = Keys.hmacShaKeyFor(mac.doFinal(PURPOSE.getBytes(StandardCharsets.US_ASCII)));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot derive login handoff key", e);
+            }
+            signingKey = k;
+        }
+        return k;
+    }
+}
@@ -0,0 +1,60 @@
+package com.scholarsync.backend.security;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs each OAuth callback ({@code /login/oauth2/code/*}) under one {@code login.callback}
+ * observation and, when the trace is sampled (so it can be looked up), returns its trace ID in
+ * {@value LoginTracing#TRACE_ID_HEADER}. It sits ahead of
+ * admission control and the OAuth login filter, so the admission wait and every
+ * {@code login.stage} (the IdP code exchange and user-info call as well as the success handler's
+ * steps) are children of the same span.
+ */
+@Component
+public class LoginObservationFilter extends OncePerRequestFilter {
+
+    private final ObservationRegistry observationRegistry;
+    private final Tracer tracer;
+
+    public LoginObservationFilter(ObservationRegistry observationRegistry, Tracer tracer) {
+        this.observationRegistry = observationRegistry;
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + LoginAdmissionFilter.CALLBACK_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Observation login = Observation.createNotStarted(LoginTracing.LOGIN, observationRegistry)
+                .contextualName("oauth2 login callback")
+                .start();
+        try (Observation.Scope scope = login.openScope()) {
+            Span span = tracer.currentSpan();
+            if (span != null && Boolean.TRUE.equals(span.context().sampled())) { // never for the no-op tracer
+                response.setHeader(LoginTracing.TRACE_ID_HEADER, span.context().traceId());
+            }
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            login.error(e);
+            throw e;
+        } finally {
+            login.stop();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.scholarsync.backend.security;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.function.Supplier;
+
+/**
+ * Observations for the stages of an OAuth login. With tracing on each one is a span, a child of the
+ * callback's {@code login.callback} span ({@link LoginObservationFilter}), and every one also feeds
+ * the {@code login.stage} timer, tagged
+ * {@code stage=idp_token_exchange|idp_user_info|graph_profile|user_upsert|token_issue}.
+ */
+public final class LoginTracing {
+
+    /** Response header carrying the trace ID of the login callback, to look up a slow login. */
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    static final String STAGE = "login.stage";
+    static final String LOGIN = "login.callback";
+
+    private LoginTracing() {
+    }
+
+    public static <T> T stage(ObservationRegistry registry, String stage, Supplier<T> work) {
+        return Observation.createNotStarted(STAGE, registry)
+                .contextualName("login " + stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .observe(work);
+    }
+
+    public static void stage(ObservationRegistry registry, String stage, Runnable work) {
+        Observation.createNotStarted(STAGE, registry)
+                .contextualName("login " + stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .observe(work);
+    }
+}
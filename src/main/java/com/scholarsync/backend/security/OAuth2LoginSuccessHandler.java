@@ -1,11 +1,14 @@
 package com.scholarsync.backend.security;
 
 import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.service.InstitutionalIdClassifier;
 import com.scholarsync.backend.service.MicrosoftGraphService;
 import com.scholarsync.backend.service.UserService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -17,7 +20,6 @@ import org.springframework.security.oauth2.client.authentication.OAuth2Authentic
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
@@ -29,10 +31,15 @@ import java.util.Map;
 @Component
 public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
 
+    static final String SUCCESS_PATH = "/api/auth/success";
+
     private final OAuth2AuthorizedClientService authorizedClientService;
     private final MicrosoftGraphService microsoftGraphService;
     private final UserService userService;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginHandoffService loginHandoffService;
+    private final ObservationRegistry observationRegistry;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Value("${jwt.expiration:1800000}")
@@ -41,13 +48,24 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
     public OAuth2LoginSuccessHandler(OAuth2AuthorizedClientService authorizedClientService,
                                     MicrosoftGraphService microsoftGraphService,
                                     UserService userService,
-                                    JwtService jwtService) {
+                                    JwtService jwtService,
+                                    RefreshTokenService refreshTokenService,
+                                    LoginHandoffService loginHandoffService,
+                                    ObservationRegistry observationRegistry) {
         this.authorizedClientService = authorizedClientService;
         this.microsoftGraphService = microsoftGraphService;
         this.userService = userService;
         this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.loginHandoffService = loginHandoffService;
+        this.observationRegistry = observationRegistry;
     }
 
+    /**
+     * Runs on the callback thread inside the {@code login.callback} observation started by
+     * {@link LoginObservationFilter}, so each step's {@code login.stage} (see {@link LoginTracing})
+     * is a child of it, next to the IdP stages that ran before this handler.
+     */
     @Override
     public void onAuthenticationSuccess(
             HttpServletRequest request,
@@ -72,24 +90,28 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
         }
 
         String accessToken = authorizedClient.getAccessToken().getTokenValue();
+        // Only needed for the Graph call below; don't keep every login's client in memory
+        authorizedClientService.removeAuthorizedClient(registrationId, oauth2User.getName());
 
         try {
-            // Fetch full user profile from Microsoft Graph API including jobTitle
-            MicrosoftGraphService.UserProfile userProfile = microsoftGraphService
-                    .getUserProfile(accessToken)
-                    .block(); // Blocking call - in production, consider async handling
-
-            if (userProfile == null) {
-                log.error("Failed to fetch user profile from Microsoft Graph API");
-                sendErrorResponse(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, 
-                    "Failed to fetch user profile", "User profile is null from Microsoft Graph API", null, oauth2User);
-                return;
-            }
+            // Fetch full user profile from Microsoft Graph API including jobTitle, served from the profile cache
+            // (keyed by the ID token's oid) when possible. The wait is bounded by app.graph.latency-budget-ms;
+            // when Graph is slow or failing, the ID-token claims are used instead.
+            MicrosoftGraphService.UserProfile userProfile = LoginTracing.stage(observationRegistry, "graph_profile",
+                    () -> microsoftGraphService.getCachedUserProfileOrElse(
+                            oauth2User.getAttribute("oid"), accessToken, () -> extractPartialProfile(oauth2User)));
 
             // Extract user information
             String microsoftId = userProfile.getId();
             String email = userProfile.getMail() != null ? userProfile.getMail() : userProfile.getUserPrincipalName();
 
+            if (microsoftId == null || email == null) {
+                log.error("No Microsoft ID or email available from Microsoft Graph API or ID token");
+                sendErrorResponse(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Failed to fetch user profile", "Microsoft ID or email missing from user profile", userProfile, oauth2User);
+                return;
+            }
+
             // Enforce domain restriction: only @cit.edu users may authenticate
             if (email == null || !email.toLowerCase().endsWith("@cit.edu")) {
                 log.warn("Blocked login attempt for non-cit.edu email: {}", email);
@@ -104,16 +126,12 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
 
             log.info("Processing OAuth authentication for user: {} (Microsoft ID: {})", email, microsoftId);
 
-            // Unified sign up/login: Check if user exists first to determine if it's registration or login
-            boolean isNewUser = !userService.findByMicrosoftId(microsoftId).isPresent();
-            
-            // Create new user (auto-register) or update existing user (login)
-            User user = userService.createOrUpdateUserFromOAuth(
-                    microsoftId,
-                    email,
-                    displayName,
-                    institutionalId
-            );
+            // Unified sign up/login: create new user (auto-register) or update existing user (login),
+            // learning which of the two it was from the same lookup
+            UserService.LoginResult login = LoginTracing.stage(observationRegistry, "user_upsert",
+                    () -> userService.upsertFromOAuth(microsoftId, email, displayName, institutionalId));
+            User user = login.getUser();
+            boolean isNewUser = login.isNewUser();
 
             if (isNewUser) {
                 log.info("New user registered and signed in: {} (Role: {})", email, user.getRole());
@@ -121,76 +139,11 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
                 log.info("Existing user signed in: {} (Role: {})", email, user.getRole());
             }
 
-            // Issue JWT for stateless API access
-            String jwt = jwtService.generateToken(user);
-            ResponseCookie tokenCookie = ResponseCookie.from("SESSION_TOKEN", jwt)
-                    .httpOnly(true)
-                    .path("/")
-                    .maxAge(Duration.ofMillis(jwtExpirationMillis))
-                    .sameSite("Lax")
-                    .build();
-            response.addHeader(HttpHeaders.SET_COOKIE, tokenCookie.toString());
-
-            // Store Microsoft Graph profile info and user status in session for the success endpoint
-            // Using session because request attributes don't persist across redirects
-            jakarta.servlet.http.HttpSession session = request.getSession();
-            session.setAttribute("microsoftProfile", userProfile);
-            session.setAttribute("savedUser", user);
-            session.setAttribute("isNewUser", isNewUser);
-
-            // Redirect to success endpoint or frontend
-            super.onAuthenticationSuccess(request, response, authentication);
-
-        } catch (WebClientResponseException e) {
-            log.error("Error calling Microsoft Graph API: {} (Status: {})", e.getMessage(), e.getStatusCode(), e);
-            log.warn("Falling back to OAuth2User attributes for user creation");
-            
-            // Fallback: Create user from OAuth2User attributes when Graph API fails
-            try {
-                MicrosoftGraphService.UserProfile partialProfile = extractPartialProfile(oauth2User);
-                String microsoftId = partialProfile.getId();
-                String email = partialProfile.getMail() != null ? partialProfile.getMail() : 
-                              (oauth2User.getAttribute("email") != null ? oauth2User.getAttribute("email") : 
-                               oauth2User.getAttribute("userPrincipalName"));
-                String displayName = partialProfile.getDisplayName();
-                String institutionalId = partialProfile.getJobTitle(); // Microsoft stores institutional ID in jobTitle field
-                
-                if (microsoftId != null && email != null) {
-                    boolean isNewUser = !userService.findByMicrosoftId(microsoftId).isPresent();
-                    
-                    User user = userService.createOrUpdateUserFromOAuth(
-                            microsoftId,
-                            email,
-                            displayName,
-                            institutionalId
-                    );
-                    
-                    if (isNewUser) {
-                        log.info("New user registered via fallback: {} (Role: {})", email, user.getRole());
-                    } else {
-                        log.info("Existing user signed in via fallback: {} (Role: {})", email, user.getRole());
-                    }
-                    
-                    // Store in session for success endpoint
-                    jakarta.servlet.http.HttpSession session = request.getSession();
-                    session.setAttribute("microsoftProfile", partialProfile);
-                    session.setAttribute("savedUser", user);
-                    session.setAttribute("isNewUser", isNewUser);
-                    
-                    // Redirect to success endpoint
-                    super.onAuthenticationSuccess(request, response, authentication);
-                    return;
-                }
-            } catch (Exception fallbackException) {
-                log.error("Fallback user creation also failed: {}", fallbackException.getMessage(), fallbackException);
-            }
-            
-            // If fallback also fails, send error response
-            MicrosoftGraphService.UserProfile partialProfile = extractPartialProfile(oauth2User);
-            sendErrorResponse(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, 
-                "Failed to fetch user information", 
-                "Microsoft Graph API error: " + e.getMessage() + " (Status: " + e.getStatusCode() + ")",
-                partialProfile, oauth2User);
+            // Issue JWT for stateless API access, plus a refresh token to renew it without another OAuth round trip
+            LoginTracing.stage(observationRegistry, "token_issue", () -> issueTokenCookies(response, user));
+
+            redirectWithHandoff(request, response, user, isNewUser);
+
         } catch (Exception e) {
             log.error("Unexpected error during OAuth login: {}", e.getMessage(), e);
             
@@ -205,21 +158,17 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
                 String institutionalId = partialProfile.getJobTitle(); // Microsoft stores institutional ID in jobTitle field
                 
                 if (microsoftId != null && email != null) {
-                    boolean isNewUser = !userService.findByMicrosoftId(microsoftId).isPresent();
-                    
-                    User user = userService.createOrUpdateUserFromOAuth(
+                    UserService.LoginResult login = userService.upsertFromOAuth(
                             microsoftId,
                             email,
                             displayName,
                             institutionalId
                     );
+                    User user = login.getUser();
+                    boolean isNewUser = login.isNewUser();
                     
-                    jakarta.servlet.http.HttpSession session = request.getSession();
-                    session.setAttribute("microsoftProfile", partialProfile);
-                    session.setAttribute("savedUser", user);
-                    session.setAttribute("isNewUser", isNewUser);
-                    
-                    super.onAuthenticationSuccess(request, response, authentication);
+                    issueTokenCookies(response, user);
+                    redirectWithHandoff(request, response, user, isNewUser);
                     return;
                 }
             } catch (Exception fallbackException) {
@@ -234,6 +183,44 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
         }
     }
 
+    /**
+     * Sets the SESSION_TOKEN (JWT) and REFRESH_TOKEN cookies for a freshly authenticated user
+     */
+    private void issueTokenCookies(HttpServletResponse response, User user) {
+        String jwt = jwtService.generateToken(user);
+        ResponseCookie tokenCookie = ResponseCookie.from("SESSION_TOKEN", jwt)
+                .httpOnly(true)
+                .path("/")
+                .maxAge(Duration.ofMillis(jwtExpirationMillis))
+                .sameSite("Lax")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, tokenCookie.toString());
+
+        RefreshTokenService.Issued refresh = refreshTokenService.issue(user.getId());
+        ResponseCookie refreshCookie = ResponseCookie.from(RefreshTokenService.COOKIE_NAME, refresh.getToken())
+                .httpOnly(true)
+                .path("/api/auth")
+                .maxAge(refreshTokenService.getRefreshLifetime())
+                .sameSite("Lax")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, refreshCookie.toString());
+    }
+
+    /**
+     * Redirects to the success endpoint with a one-time code for this login instead of parking the
+     * result in the session. The session only held the OAuth authorization request, which has been
+     * consumed by now, so it is dropped and nothing about the login stays on this server.
+     */
+    private void redirectWithHandoff(HttpServletRequest request, HttpServletResponse response,
+                                     User user, boolean isNewUser) throws IOException {
+        String code = loginHandoffService.issue(user.getId(), isNewUser);
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
+        getRedirectStrategy().sendRedirect(request, response, SUCCESS_PATH + "?code=" + code);
+    }
+
     /**
      * Sends a JSON error response with Microsoft Graph API details if available
      */
@@ -295,16 +282,11 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
         // OAuth2User doesn't have jobTitle, but institutional ID is in given_name
         String givenName = oauth2User.getAttribute("given_name");
         String institutionalId = null;
-        if (givenName != null && !givenName.isEmpty()) {
-            // Extract the institutional ID pattern from given_name
-            // Pattern: "22-0369-330 Giles Anthony" or "2010-12345 Name" or "1643 Name"
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(
-                "^(\\d{2}-\\d{4}-\\d{3}|\\d{4}-\\d{5}|\\d{1,4})\\b"
-            );
-            java.util.regex.Matcher matcher = pattern.matcher(givenName);
-            if (matcher.find()) {
-                institutionalId = matcher.group(1);
-            }
+        // Extract the institutional ID pattern from given_name
+        // Pattern: "22-0369-330 Giles Anthony" or "2010-12345 Name" or "1643 Name"
+        int idLength = InstitutionalIdClassifier.idPrefixLength(givenName);
+        if (idLength > 0) {
+            institutionalId = givenName.substring(0, idLength);
         }
         
         // Fallback: try jobTitle attribute if given_name extraction failed
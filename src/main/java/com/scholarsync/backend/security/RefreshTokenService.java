@@ -0,0 +1,145 @@
+package com.scholarsync.backend.security;
+
+import com.scholarsync.backend.exception.InvalidRefreshTokenException;
+import com.scholarsync.backend.model.RefreshToken;
+import com.scholarsync.backend.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens so an expired JWT can be renewed without repeating
+ * the Microsoft OAuth redirect and Graph lookup.
+ *
+ * Each login starts a token family with a fixed lifetime ({@code jwt.refresh.expiration}); every
+ * refresh consumes the presented token and issues the next one in the family. Presenting a token
+ * that was already consumed means it leaked, so the whole family is revoked.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    public static final String COOKIE_NAME = "REFRESH_TOKEN";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long refreshExpirationMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh.expiration:86400000}") long refreshExpirationMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshExpirationMillis = refreshExpirationMillis;
+    }
+
+    /** Outcome of issuing or rotating: the raw token for the client plus the owning user. */
+    public static final class Issued {
+        private final String token;
+        private final UUID userId;
+        private final Instant expiresAt;
+
+        Issued(String token, UUID userId, Instant expiresAt) {
+            this.token = token;
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public UUID getUserId() {
+            return userId;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    public Duration getRefreshLifetime() {
+        return Duration.ofMillis(refreshExpirationMillis);
+    }
+
+    /** Starts a new token family after a full OAuth login. */
+    @Transactional
+    public Issued issue(UUID userId) {
+        Instant expiresAt = Instant.now().plusMillis(refreshExpirationMillis);
+        return create(userId, UUID.randomUUID(), expiresAt);
+    }
+
+    /**
+     * Exchanges a refresh token for the next one in its family.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked or reused
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Issued rotate(String rawToken) {
+        if (rawToken == null || rawToken.isEmpty()) {
+            throw new InvalidRefreshTokenException("Missing refresh token");
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Unknown refresh token"));
+        Instant now = Instant.now();
+        if (current.isRevoked()) {
+            throw new InvalidRefreshTokenException("Refresh token revoked");
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            log.warn("Refresh token reuse detected for user {}; revoking family {}", current.getUserId(), current.getFamilyId());
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token reuse detected");
+        }
+        return create(current.getUserId(), current.getFamilyId(), current.getExpiresAt());
+    }
+
+    /** Revokes the family the given token belongs to (logout). Unknown tokens are ignored. */
+    @Transactional
+    public void revokeFamilyOf(String rawToken) {
+        if (rawToken == null || rawToken.isEmpty()) return;
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(t -> refreshTokenRepository.revokeFamily(t.getFamilyId()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.prune-interval-ms:3600000}",
+               initialDelayString = "${jwt.refresh.prune-interval-ms:3600000}")
+    public void pruneExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private Issued create(UUID userId, UUID familyId, Instant expiresAt) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(raw))
+                .userId(userId)
+                .familyId(familyId)
+                .expiresAt(expiresAt)
+                .createdAt(Instant.now())
+                .build());
+        return new Issued(raw, userId, expiresAt);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.scholarsync.backend.security;
+
+import com.scholarsync.backend.repository.RevokedTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Revocation list for JWTs (by jti), persisted in {@code revoked_tokens} and fronted by an
+ * in-memory Bloom filter. Most tokens were never revoked, so the check is usually a few hash
+ * probes; the database is only consulted when the filter reports a possible match.
+ *
+ * Bloom filters cannot forget entries, so expired rows are pruned periodically and the filter
+ * is rebuilt from the remaining ones.
+ *
+ * Revocations made on other instances reach this filter through a refresh every
+ * {@code jwt.revocation.refresh-interval-ms} (default 5s) that loads the jtis revoked since the
+ * previous one. A token revoked elsewhere is therefore still accepted here for at most that
+ * interval, plus the time the revoking transaction takes to commit. Each refresh reads back
+ * {@link #REFRESH_OVERLAP} before the last one, so rows committed late or stamped by a clock that
+ * runs behind by less than that are still picked up.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    static final Duration REFRESH_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    // jtis revoked while a rebuild is loading from the database, replayed into the new filter
+    private List<String> revokedDuringRebuild;
+    private final Object lock = new Object();
+    // held across the database read, so a lock rather than a monitor: a blocked virtual thread unmounts
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // start of the last rebuild or refresh, by this instance's clock; null until the first rebuild
+    private Instant syncedAt;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${jwt.revocation.expected-entries:100000}") int expectedRevocations,
+                                  @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    /**
+     * Revokes a token until its own expiry. Tokens without a jti (issued before revocation support) cannot be revoked.
+     * Revoking a token twice is harmless: the existing row, and its revocation time, are kept.
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) return;
+        try {
+            revokedTokenRepository.insert(jti, expiresAt, Instant.now());
+        } catch (DataIntegrityViolationException alreadyRevoked) {
+            log.debug("Token {} was already revoked", jti);
+        }
+        addToFilter(jti);
+    }
+
+    /**
+     * Revokes a token that may be used only once, such as a login handoff code. The insert is the
+     * check: of any number of instances consuming the same jti, exactly one succeeds and the others
+     * hit the primary key.
+     *
+     * @return false if the jti was already revoked or the token has expired
+     */
+    public boolean consume(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) return false;
+        try {
+            revokedTokenRepository.insert(jti, expiresAt, Instant.now());
+        } catch (DataIntegrityViolationException alreadyRevoked) {
+            return false;
+        }
+        addToFilter(jti);
+        return true;
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(jti);
+    }
+
+    private void addToFilter(String jti) {
+        synchronized (lock) {
+            filter.add(jti);
+            if (revokedDuringRebuild != null) {
+                revokedDuringRebuild.add(jti);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval-ms:600000}",
+               initialDelayString = "${jwt.revocation.prune-interval-ms:600000}")
+    public void pruneExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.debug("Pruned {} expired revoked tokens", deleted);
+            rebuild();
+        }
+    }
+
+    /** Adds the jtis revoked (on any instance) since the last rebuild or refresh. */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:5000}",
+               initialDelayString = "${jwt.revocation.refresh-interval-ms:5000}")
+    public void refresh() {
+        rebuildLock.lock();
+        try {
+            if (syncedAt == null) {
+                rebuildLocked();
+                return;
+            }
+            Instant start = Instant.now();
+            for (String jti : revokedTokenRepository.findActiveJtisRevokedAfter(syncedAt.minus(REFRESH_OVERLAP), start)) {
+                addToFilter(jti);
+            }
+            syncedAt = start;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildLocked();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildLocked() {
+        Instant start = Instant.now();
+        synchronized (lock) {
+            revokedDuringRebuild = new ArrayList<>();
+        }
+        BloomFilter rebuilt;
+        try {
+            List<String> jtis = revokedTokenRepository.findActiveJtis(Instant.now());
+            rebuilt = new BloomFilter(Math.max(expectedRevocations, jtis.size() * 2), falsePositiveRate);
+            for (String jti : jtis) {
+                rebuilt.add(jti);
+            }
+        } catch (RuntimeException ex) {
+            synchronized (lock) {
+                revokedDuringRebuild = null;
+            }
+            throw ex;
+        }
+        synchronized (lock) {
+            for (String jti : revokedDuringRebuild) {
+                rebuilt.add(jti);
+            }
+            revokedDuringRebuild = null;
+            filter = rebuilt;
+        }
+        syncedAt = start;
+    }
+}
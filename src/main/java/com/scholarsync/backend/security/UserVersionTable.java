@@ -0,0 +1,124 @@
+package com.scholarsync.backend.security;
+
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory view of each user's current role and active flag, used to check JWTs without a
+ * database round trip. Every change to either bumps the user's version; tokens carry the version
+ * they were issued at ("ver" claim) and are rejected once it is behind.
+ *
+ * A user not seen yet in this process is loaded from the database, and an entry older than
+ * {@code jwt.user-versions.ttl-ms} (default 30s) is loaded again on its next use, so a user costs
+ * one query per TTL instead of one per request. Changes made through this process apply at once;
+ * role changes and deactivations made by another instance (or directly in the database) apply here
+ * within the TTL. At most {@code jwt.user-versions.max-size} users are kept. A user that is evicted
+ * or re-read after being deleted starts again at version 0; tokens are still checked against the
+ * freshly loaded role and active flag.
+ */
+@Component
+public class UserVersionTable {
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    public UserVersionTable(UserRepository userRepository,
+                            @Value("${jwt.user-versions.ttl-ms:30000}") long ttlMillis,
+                            @Value("${jwt.user-versions.max-size:100000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxSize = maxSize;
+    }
+
+    private static final class Entry {
+        final Role role;
+        final boolean active;
+        final int version;
+        final long loadedAtNanos;
+
+        Entry(Role role, boolean active, int version) {
+            this.role = role;
+            this.active = active;
+            this.version = version;
+            this.loadedAtNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Records the current state of a saved user, bumping its version if the role or active flag changed.
+     */
+    public void record(User user) {
+        if (user.getId() == null) return;
+        if (!entries.containsKey(user.getId())) {
+            makeRoom();
+        }
+        entries.compute(user.getId(), (id, e) -> next(e, user));
+    }
+
+    /**
+     * Records a role changed by a bulk update, bumping the version if this user is known here.
+     * Users not loaded yet are read from the database on first use anyway.
+     */
+    public void recordRole(UUID userId, Role role) {
+        entries.computeIfPresent(userId, (id, e) -> e.role == role ? e : new Entry(role, e.active, e.version + 1));
+    }
+
+    public int currentVersion(UUID userId) {
+        Entry e = lookup(userId);
+        return e == null ? 0 : e.version;
+    }
+
+    /**
+     * True if the user still exists, is active, still has {@code role}, and the token's version is current.
+     */
+    public boolean isCurrent(UUID userId, String role, int tokenVersion) {
+        Entry e = lookup(userId);
+        return e != null && e.active && e.role.name().equals(role) && tokenVersion >= e.version;
+    }
+
+    private Entry lookup(UUID userId) {
+        Entry e = entries.get(userId);
+        if (e != null && System.nanoTime() - e.loadedAtNanos < ttlNanos) return e;
+        Optional<User> user = userRepository.findById(userId);
+        if (e == null) {
+            if (user.isEmpty()) return null;
+            makeRoom();
+        }
+        // a record() made while we were reading is newer than what we read: keep it
+        return entries.compute(userId, (id, current) -> current != null && current != e ? current
+                : user.map(u -> next(current, u)).orElse(null));
+    }
+
+    // a new entry even if nothing changed: it restarts the TTL
+    private static Entry next(Entry e, User user) {
+        Role role = user.getRole() != null ? user.getRole() : Role.UNKNOWN;
+        boolean active = user.isActiveAccount();
+        if (e == null) return new Entry(role, active, 0);
+        return new Entry(role, active, e.role == role && e.active == active ? e.version : e.version + 1);
+    }
+
+    private void makeRoom() {
+        if (entries.size() < maxSize) return;
+        long now = System.nanoTime();
+        entries.values().removeIf(e -> now - e.loadedAtNanos >= ttlNanos);
+        // still full: shed an arbitrary tenth rather than growing without bound
+        Iterator<UUID> it = entries.keySet().iterator();
+        int toShed = entries.size() - (maxSize - maxSize / 10);
+        while (toShed-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.scholarsync.backend.service;
+
+import com.scholarsync.backend.dto.AutoGroupPlan;
+import com.scholarsync.backend.dto.CourseChangeEvent;
+import com.scholarsync.backend.exception.ImportValidationException;
+import com.scholarsync.backend.model.GroupEntity;
+import com.scholarsync.backend.model.Student;
+import com.scholarsync.backend.repository.GroupRepository;
+import com.scholarsync.backend.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Places every unassigned student of a course into a group.
+ *
+ * Planning works on primitive arrays only (one int slot per student), so a 20k-student
+ * course is planned in a few milliseconds; the bulk of {@link #apply} is the batched JDBC writes.
+ */
+@Service
+public class AutoGroupingService {
+
+    private final StudentRepository studentRepository;
+    private final GroupRepository groupRepository;
+    private final EntityManager entityManager;
+    private final CourseChangeSequencer changeSequencer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int writeBatchSize;
+
+    public AutoGroupingService(StudentRepository studentRepository, GroupRepository groupRepository, EntityManager entityManager,
+            CourseChangeSequencer changeSequencer, ApplicationEventPublisher eventPublisher,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int writeBatchSize) {
+        this.studentRepository = studentRepository;
+        this.groupRepository = groupRepository;
+        this.entityManager = entityManager;
+        this.changeSequencer = changeSequencer;
+        this.eventPublisher = eventPublisher;
+        this.writeBatchSize = Math.max(1, writeBatchSize);
+    }
+
+    /**
+     * Result of {@link #assign}: {@code groupOf[i]} is the slot of the i-th unassigned student.
+     * Slots below {@code openSlots.length} are existing partial groups, the rest are new groups.
+     */
+    static final class Assignment {
+        final int[] groupOf;
+        final int existingGroups;
+        final int newGroups;
+
+        Assignment(int[] groupOf, int existingGroups, int newGroups) {
+            this.groupOf = groupOf;
+            this.existingGroups = existingGroups;
+            this.newGroups = newGroups;
+        }
+    }
+
+    /**
+     * Assigns {@code students} slots to groups: open seats in existing groups are filled first (in order),
+     * the remainder is split into new groups of at most {@code groupSize}. With {@code balanceSizes}
+     * the new groups differ in size by at most one instead of leaving a single short group at the end.
+     */
+    static Assignment assign(int students, int[] openSlots, int groupSize, boolean balanceSizes) {
+        int[] groupOf = new int[students];
+        int next = 0;
+        for (int g = 0; g < openSlots.length && next < students; g++) {
+            int take = Math.min(openSlots[g], students - next);
+            Arrays.fill(groupOf, next, next + take, g);
+            next += take;
+        }
+
+        int remaining = students - next;
+        int newGroups = remaining == 0 ? 0 : (remaining + groupSize - 1) / groupSize;
+        int base = newGroups == 0 ? 0 : remaining / newGroups;
+        int extra = newGroups == 0 ? 0 : remaining % newGroups;
+        for (int g = 0; g < newGroups; g++) {
+            int size = balanceSizes ? base + (g < extra ? 1 : 0) : Math.min(groupSize, students - next);
+            Arrays.fill(groupOf, next, next + size, openSlots.length + g);
+            next += size;
+        }
+        return new Assignment(groupOf, openSlots.length, newGroups);
+    }
+
+    /**
+     * Computes the grouping for a course without writing anything.
+     */
+    @Transactional(readOnly = true)
+    public AutoGroupPlan preview(Long courseId, Integer groupSize, boolean keepPartialGroups, boolean balanceSizes) {
+        return plan(courseId, groupSize, keepPartialGroups, balanceSizes).plan;
+    }
+
+    /**
+     * Recomputes the plan against the current roster and persists it. Because planning is deterministic
+     * (students ordered by ID, partial groups by creation time) the result matches the last preview
+     * as long as the roster has not changed in between.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public AutoGroupPlan apply(Long courseId, Integer groupSize, boolean keepPartialGroups, boolean balanceSizes) {
+        Planned planned = plan(courseId, groupSize, keepPartialGroups, balanceSizes);
+        Assignment a = planned.assignment;
+        List<Student> students = planned.students;
+        List<GroupEntity> partial = planned.partialGroups;
+        List<AutoGroupPlan.PlannedGroup> groups = planned.plan.getGroups();
+
+        // new groups are persisted (not merged) so Hibernate can batch the inserts without a SELECT per group
+        Instant now = Instant.now();
+        long changeSeq = changeSequencer.next(courseId);
+        int pending = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            AutoGroupPlan.PlannedGroup pg = groups.get(g);
+            if (pg.isExisting()) {
+                GroupEntity existing = partial.get(g);
+                // plan() counts a group without a member list as empty, so give it one
+                if (existing.getMemberStudentIds() == null) {
+                    existing.setMemberStudentIds(new ArrayList<>(pg.getAddedStudentIds().size()));
+                }
+                existing.getMemberStudentIds().addAll(pg.getAddedStudentIds());
+                existing.setChangeSeq(changeSeq);
+            } else {
+                String gid = UUID.randomUUID().toString();
+                pg.setGroupId(gid);
+                entityManager.persist(new GroupEntity(gid, pg.getGroupName(), courseId, pg.getLeaderStudentId(),
+                        new ArrayList<>(pg.getAddedStudentIds()), null, now, changeSeq));
+            }
+            pending += pg.getAddedStudentIds().size() + 1;
+            if (pending >= writeBatchSize) {
+                entityManager.flush();
+                pending = 0;
+            }
+        }
+
+        int firstNew = a.existingGroups;
+        for (int i = 0; i < students.size(); i++) {
+            int slot = a.groupOf[i];
+            String gid = slot < firstNew ? partial.get(slot).getGroupId() : groups.get(slot).getGroupId();
+            students.get(i).setGroupId(gid);
+            students.get(i).setChangeSeq(changeSeq);
+        }
+        entityManager.flush();
+        for (AutoGroupPlan.PlannedGroup pg : groups) {
+            CourseChangeEvent.Type type = pg.isExisting() ? CourseChangeEvent.Type.GROUP_CHANGED : CourseChangeEvent.Type.GROUP_CREATED;
+            eventPublisher.publishEvent(new CourseChangeEvent(type, courseId, pg.getGroupId(), pg.getGroupName(), pg.getAddedStudentIds()));
+        }
+        return planned.plan;
+    }
+
+    private static final class Planned {
+        AutoGroupPlan plan;
+        Assignment assignment;
+        List<Student> students;
+        List<GroupEntity> partialGroups;
+    }
+
+    private Planned plan(Long courseId, Integer groupSize, boolean keepPartialGroups, boolean balanceSizes) {
+        List<String> errors = new ArrayList<>();
+        if (courseId == null) {
+            errors.add("COURSE ID: cannot be empty");
+        }
+        if (groupSize == null || groupSize < 2) {
+            errors.add(String.format("GROUP SIZE=%s: must be at least 2", groupSize));
+        }
+        if (!errors.isEmpty()) throw new ImportValidationException(errors);
+
+        List<Student> students = studentRepository.findUnassignedByCourseId(courseId);
+        List<GroupEntity> courseGroups = groupRepository.findAllByCourseId(courseId);
+        Set<String> usedNames = new HashSet<>();
+        for (GroupEntity g : courseGroups) {
+            usedNames.add(g.getGroupName());
+        }
+
+        List<GroupEntity> partial = new ArrayList<>();
+        if (keepPartialGroups) {
+            for (GroupEntity g : courseGroups) {
+                int size = g.getMemberStudentIds() == null ? 0 : g.getMemberStudentIds().size();
+                if (size < groupSize) {
+                    partial.add(g);
+                }
+            }
+            partial.sort(Comparator.comparing(GroupEntity::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(GroupEntity::getGroupId));
+        }
+        int[] openSlots = new int[partial.size()];
+        for (int g = 0; g < openSlots.length; g++) {
+            List<String> members = partial.get(g).getMemberStudentIds();
+            openSlots[g] = groupSize - (members == null ? 0 : members.size());
+        }
+
+        Assignment a = assign(students.size(), openSlots, groupSize, balanceSizes);
+
+        // group sizes first, so each member list is allocated once at its final size
+        int totalGroups = a.existingGroups + a.newGroups;
+        int[] counts = new int[totalGroups];
+        for (int slot : a.groupOf) {
+            counts[slot]++;
+        }
+        List<List<String>> added = new ArrayList<>(totalGroups);
+        for (int g = 0; g < totalGroups; g++) {
+            added.add(new ArrayList<>(counts[g]));
+        }
+        for (int i = 0; i < a.groupOf.length; i++) {
+            added.get(a.groupOf[i]).add(students.get(i).getStudentId());
+        }
+
+        List<AutoGroupPlan.PlannedGroup> groups = new ArrayList<>();
+        int groupsFilled = 0;
+        for (int g = 0; g < a.existingGroups; g++) {
+            if (counts[g] == 0) continue;
+            GroupEntity pg = partial.get(g);
+            groups.add(new AutoGroupPlan.PlannedGroup(pg.getGroupId(), pg.getGroupName(), true, pg.getLeaderStudentId(), added.get(g)));
+            groupsFilled++;
+        }
+        // seats are filled in order, so untouched partial groups form a suffix; dropping them keeps
+        // slot indices aligned with the plan's group list
+        if (groupsFilled < a.existingGroups) {
+            List<GroupEntity> touched = new ArrayList<>(groupsFilled);
+            for (int g = 0; g < a.existingGroups; g++) {
+                if (counts[g] > 0) touched.add(partial.get(g));
+            }
+            partial = touched;
+            a = new Assignment(a.groupOf, touched.size(), a.newGroups);
+        }
+        int seq = 0;
+        for (int g = openSlots.length; g < totalGroups; g++) {
+            String name;
+            do {
+                name = String.format("AUTO-%d", ++seq);
+            } while (usedNames.contains(name));
+            List<String> members = added.get(g);
+            groups.add(new AutoGroupPlan.PlannedGroup(null, name, false, members.get(0), members));
+        }
+
+        Planned planned = new Planned();
+        planned.plan = new AutoGroupPlan(courseId, groupSize, students.size(), groupsFilled, a.newGroups, groups);
+        planned.assignment = a;
+        planned.students = students;
+        planned.partialGroups = partial;
+        return planned;
+    }
+}
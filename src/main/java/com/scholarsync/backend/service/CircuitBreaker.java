@@ -0,0 +1,105 @@
+package com.scholarsync.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row the
+ * circuit opens and calls are refused without being attempted; once {@code openMillis} has passed
+ * a single probe call is let through (half-open), which closes the circuit on success or reopens
+ * it on failure.
+ *
+ * State is exported as the gauge {@code <name>.state} (0 closed, 1 open, 2 half-open) and every
+ * transition counts towards {@code <name>.transitions} tagged with the new state.
+ */
+@Slf4j
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private volatile long openedAtMillis;
+
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+
+    CircuitBreaker(String name, int failureThreshold, long openMillis, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        Gauge.builder(name + ".state", state, s -> s.get().ordinal()).register(meterRegistry);
+        for (State s : State.values()) {
+            transitions.put(s, Counter.builder(name + ".transitions").tag("to", s.name().toLowerCase()).register(meterRegistry));
+        }
+    }
+
+    State getState() {
+        return state.get();
+    }
+
+    /**
+     * True if a call may be attempted now. Every permitted call must be followed by exactly one of
+     * {@link #onSuccess}, {@link #onFailure} or {@link #onIgnored}.
+     */
+    boolean tryAcquirePermission() {
+        State s = state.get();
+        if (s == State.CLOSED) {
+            return true;
+        }
+        if (s == State.OPEN) {
+            if (System.currentTimeMillis() - openedAtMillis < openMillis) {
+                return false;
+            }
+            transition(State.OPEN, State.HALF_OPEN);
+        }
+        return state.get() == State.HALF_OPEN && probeInFlight.compareAndSet(false, true);
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.get() == State.HALF_OPEN) {
+            transition(State.HALF_OPEN, State.CLOSED);
+            probeInFlight.set(false);
+        }
+    }
+
+    void onFailure() {
+        State s = state.get();
+        if (s == State.HALF_OPEN) {
+            openedAtMillis = System.currentTimeMillis();
+            transition(State.HALF_OPEN, State.OPEN);
+            probeInFlight.set(false);
+        } else if (s == State.CLOSED && consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAtMillis = System.currentTimeMillis();
+            transition(State.CLOSED, State.OPEN);
+        }
+    }
+
+    /** The permitted call ended without telling us anything about the remote side (e.g. cancelled). */
+    void onIgnored() {
+        if (state.get() == State.HALF_OPEN) {
+            probeInFlight.set(false);
+        }
+    }
+
+    private void transition(State from, State to) {
+        if (state.compareAndSet(from, to)) {
+            consecutiveFailures.set(0);
+            transitions.get(to).increment();
+            log.info("Circuit breaker {} {} -> {}", name, from, to);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.scholarsync.backend.service;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Hands out each course's roster change sequence: every transaction that changes students or groups
+ * of a course takes the next number and stamps the rows it writes with it ({@code change_seq}).
+ *
+ * Taking a number writes the course's counter row in the caller's transaction, so the row stays
+ * locked until that transaction ends and writes to one course commit in sequence order. A reader that
+ * has seen everything up to N can therefore never miss a row with a number below a later one, which
+ * is what makes {@code changes?since=N} complete.
+ *
+ * On MySQL the counter is created or bumped by a single upsert. A locking read of a counter that does
+ * not exist yet would take an InnoDB gap lock, and the insert that creates it (from this or any other
+ * transaction) would then wait on that gap lock until the lock wait timeout.
+ */
+@Service
+public class CourseChangeSequencer {
+
+    static final String MYSQL_NEXT = "insert into course_change_seq (course_id, last_seq) values (?, last_insert_id(1))"
+            + " on duplicate key update last_seq = last_insert_id(last_seq + 1)";
+
+    private final JdbcTemplate jdbc;
+    private volatile Boolean mysql;
+
+    @Autowired
+    public CourseChangeSequencer(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    CourseChangeSequencer(JdbcTemplate jdbc, boolean mysql) {
+        this.jdbc = jdbc;
+        this.mysql = mysql;
+    }
+
+    /** The next number for the course; the counter row stays locked until the caller's transaction ends. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long next(Long courseId) {
+        if (isMySql()) {
+            jdbc.update(MYSQL_NEXT, courseId);
+            // per connection, so this is the value our upsert just set
+            return jdbc.queryForObject("select last_insert_id()", Long.class);
+        }
+        // H2 has no gap locks: the UPDATE locks an existing row, a missing one is inserted
+        if (jdbc.update("update course_change_seq set last_seq = last_seq + 1 where course_id = ?", courseId) == 0) {
+            try {
+                jdbc.update("insert into course_change_seq (course_id, last_seq) values (?, 1)", courseId);
+                return 1;
+            } catch (DuplicateKeyException created) {
+                // a concurrent writer created it first and has committed by now
+                jdbc.update("update course_change_seq set last_seq = last_seq + 1 where course_id = ?", courseId);
+            }
+        }
+        return jdbc.queryForObject("select last_seq from course_change_seq where course_id = ?", Long.class, courseId);
+    }
+
+    /** The last number handed out and committed for the course, 0 if nothing has changed yet. */
+    @Transactional(readOnly = true)
+    public long current(Long courseId) {
+        List<Long> seq = jdbc.queryForList("select last_seq from course_change_seq where course_id = ?", Long.class, courseId);
+        return seq.isEmpty() ? 0 : seq.get(0);
+    }
+
+    private boolean isMySql() {
+        if (mysql == null) {
+            String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            mysql = product != null && (product.contains("MySQL") || product.contains("MariaDB"));
+        }
+        return mysql;
+    }
+}
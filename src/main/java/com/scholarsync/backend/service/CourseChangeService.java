@@ -0,0 +1,74 @@
+package com.scholarsync.backend.service;
+
+import com.scholarsync.backend.dto.CourseChanges;
+import com.scholarsync.backend.dto.GroupDto;
+import com.scholarsync.backend.dto.StudentDto;
+import com.scholarsync.backend.model.GroupEntity;
+import com.scholarsync.backend.model.Student;
+import com.scholarsync.backend.repository.GroupRepository;
+import com.scholarsync.backend.repository.StudentRepository;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Delta sync for client-side rosters: the students and groups of a course written after a given
+ * change sequence (see {@link CourseChangeSequencer}). Rows are sent whole, so applying a response
+ * is an upsert by ID and applying one twice is harmless.
+ */
+@Service
+public class CourseChangeService {
+
+    private final StudentRepository studentRepository;
+    private final GroupRepository groupRepository;
+    private final CourseChangeSequencer sequencer;
+    private final int maxRows;
+
+    public CourseChangeService(StudentRepository studentRepository, GroupRepository groupRepository,
+                               CourseChangeSequencer sequencer,
+                               @Value("${app.changes.max-rows:2000}") int maxRows) {
+        this.studentRepository = studentRepository;
+        this.groupRepository = groupRepository;
+        this.sequencer = sequencer;
+        this.maxRows = maxRows;
+    }
+
+    @Transactional(readOnly = true)
+    public CourseChanges changesSince(Long courseId, long since) {
+        // read first: every write numbered up to here has committed, so rows queried next include it
+        long seq = sequencer.current(courseId);
+        if (since <= 0) {
+            return new CourseChanges(courseId, 0, seq, false,
+                    students(studentRepository.findAllByCourseId(courseId)), groups(groupRepository.findAllByCourseId(courseId)));
+        }
+        if (since > seq) {
+            return reset(courseId, since, seq);
+        }
+        List<Student> students = studentRepository.findChangedSince(courseId, since, PageRequest.of(0, maxRows + 1));
+        if (students.size() > maxRows) {
+            return reset(courseId, since, seq);
+        }
+        return new CourseChanges(courseId, since, seq, false,
+                students(students), groups(groupRepository.findChangedSince(courseId, since)));
+    }
+
+    private static CourseChanges reset(Long courseId, long since, long seq) {
+        return new CourseChanges(courseId, since, seq, true, List.of(), List.of());
+    }
+
+    private static List<StudentDto> students(List<Student> students) {
+        return students.stream()
+                .map(s -> new StudentDto(s.getStudentId(), s.getCourseId(), s.getGroupId(), s.getLastName(), s.getFirstName(), s.getEmail()))
+                .toList();
+    }
+
+    private static List<GroupDto> groups(List<GroupEntity> groups) {
+        return groups.stream()
+                .map(g -> new GroupDto(g.getGroupId(), g.getGroupName(), g.getCourseId(), g.getLeaderStudentId(),
+                        g.getMemberStudentIds() == null ? List.of() : List.copyOf(g.getMemberStudentIds()),
+                        g.getAdviserId(), g.getCreatedAt()))
+                .toList();
+    }
+}
@@ -0,0 +1,245 @@
+package com.scholarsync.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scholarsync.backend.dto.CourseChangeEvent;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans course roster changes out to Server-Sent Events subscribers.
+ *
+ * Each course has one channel; an event is serialized once per publish and the same frame is
+ * offered to every subscriber's bounded buffer. A subscriber whose buffer is full is disconnected
+ * rather than slowing down the others (EventSource clients reconnect and refetch the roster).
+ *
+ * Buffers are drained by {@code app.events.dispatch-threads} threads with blocking writes. A client
+ * that stops reading blocks its write once the socket buffers fill; after
+ * {@code app.events.write-timeout-ms} the subscriber is dropped and the dispatcher gets an extra
+ * thread, so the others keep being served. The blocked thread is given back when the container
+ * fails the write ({@code server.tomcat.connection-timeout}). Emitters are only completed from the
+ * dispatcher: {@code complete()} waits for a write in progress, and must not hold up the
+ * committing request thread.
+ */
+@Slf4j
+@Service
+public class CourseEventPublisher {
+
+    // Subscriber.sendStartedNanos when no write is in progress, and once the watchdog gave up on one
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final long STALLED = Long.MAX_VALUE;
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long emitterTimeoutMillis;
+    private final long writeTimeoutNanos;
+    private final int dispatchThreads;
+    private final ThreadPoolExecutor dispatcher;
+    // writes given up on whose threads are still blocked; guarded by this
+    private int stalledWrites;
+    private final Map<Long, List<Subscriber>> channels = new ConcurrentHashMap<>();
+
+    public CourseEventPublisher(ObjectMapper objectMapper,
+            @Value("${app.events.buffer-size:1024}") int bufferSize,
+            @Value("${app.events.timeout-millis:1800000}") long emitterTimeoutMillis,
+            @Value("${app.events.dispatch-threads:2}") int dispatchThreads,
+            @Value("${app.events.write-timeout-ms:5000}") long writeTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        this.dispatchThreads = dispatchThreads;
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "course-events");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static final class Frame {
+        final String name;
+        final String data;
+
+        Frame(String name, String data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private final class Subscriber {
+        final Long courseId;
+        final SseEmitter emitter;
+        final Queue<Frame> buffer = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicLong sendStartedNanos = new AtomicLong(IDLE);
+        final AtomicBoolean completed = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(Long courseId, SseEmitter emitter) {
+            this.courseId = courseId;
+            this.emitter = emitter;
+        }
+
+        void offer(Frame frame) {
+            if (closed) return;
+            if (!buffer.offer(frame)) {
+                log.debug("Dropping slow course {} subscriber (buffer of {} full)", courseId, bufferSize);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Frame frame;
+                while (!closed && (frame = buffer.poll()) != null) {
+                    long started = System.nanoTime();
+                    sendStartedNanos.set(started);
+                    try {
+                        emitter.send(SseEmitter.event().name(frame.name).data(frame.data, MediaType.APPLICATION_JSON));
+                    } finally {
+                        if (!sendStartedNanos.compareAndSet(started, IDLE)) {
+                            releaseStalledWrite();
+                        }
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (closed) {
+                complete();
+            } else if (!buffer.isEmpty()) {
+                // a frame offered while we were finishing would otherwise wait for the next publish
+                scheduleDrain();
+            }
+        }
+
+        /** Stops delivery at once; the emitter itself is completed by the dispatcher. */
+        void close() {
+            if (closed) return;
+            closed = true;
+            remove(this);
+            buffer.clear();
+            scheduleDrain();
+        }
+
+        private void complete() {
+            if (!completed.compareAndSet(false, true)) return;
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // already completed by the container
+            }
+        }
+    }
+
+    public SseEmitter subscribe(Long courseId) {
+        return subscribe(courseId, new SseEmitter(emitterTimeoutMillis));
+    }
+
+    SseEmitter subscribe(Long courseId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(courseId, emitter);
+        emitter.onCompletion(() -> { subscriber.closed = true; remove(subscriber); });
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        channels.compute(courseId, (k, subs) -> {
+            List<Subscriber> list = subs == null ? new CopyOnWriteArrayList<>() : subs;
+            list.add(subscriber);
+            return list;
+        });
+        return emitter;
+    }
+
+    private void remove(Subscriber subscriber) {
+        channels.computeIfPresent(subscriber.courseId, (k, subs) -> {
+            subs.remove(subscriber);
+            return subs.isEmpty() ? null : subs;
+        });
+    }
+
+    /**
+     * Delivers a change once the transaction that produced it has committed, so subscribers never
+     * see groups that were rolled back.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publish(CourseChangeEvent event) {
+        List<Subscriber> subs = channels.get(event.getCourseId());
+        if (subs == null || subs.isEmpty()) return;
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            log.error("Failed to serialize course event: {}", ex.getMessage(), ex);
+            return;
+        }
+        Frame frame = new Frame(event.getType().name(), data);
+        for (Subscriber s : subs) {
+            s.offer(frame);
+        }
+    }
+
+    /** Drops subscribers whose current write has been blocked for longer than the write timeout. */
+    @Scheduled(fixedDelay = 1000)
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (List<Subscriber> subs : channels.values()) {
+            for (Subscriber s : subs) {
+                long started = s.sendStartedNanos.get();
+                if (started != IDLE && started != STALLED && now - started > writeTimeoutNanos
+                        && s.sendStartedNanos.compareAndSet(started, STALLED)) {
+                    log.debug("Dropping stalled course {} subscriber (write blocked for {} ms)",
+                            s.courseId, TimeUnit.NANOSECONDS.toMillis(now - started));
+                    addStalledWrite();
+                    s.close();
+                }
+            }
+        }
+    }
+
+    // a thread stuck in a write no longer serves anyone: stand in for it until the write fails
+    private synchronized void addStalledWrite() {
+        stalledWrites++;
+        dispatcher.setMaximumPoolSize(dispatchThreads + stalledWrites);
+        dispatcher.setCorePoolSize(dispatchThreads + stalledWrites);
+    }
+
+    private synchronized void releaseStalledWrite() {
+        stalledWrites--;
+        dispatcher.setCorePoolSize(dispatchThreads + stalledWrites);
+        dispatcher.setMaximumPoolSize(dispatchThreads + stalledWrites);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+    }
+}
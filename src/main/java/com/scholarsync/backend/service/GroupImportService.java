@@ -1,10 +1,14 @@
 package com.scholarsync.backend.service;
 
+import com.scholarsync.backend.dto.CourseChangeEvent;
 import com.scholarsync.backend.exception.ImportValidationException;
 import com.scholarsync.backend.model.GroupEntity;
 import com.scholarsync.backend.model.Student;
-import com.scholarsync.backend.repository.GroupRepository;
 import com.scholarsync.backend.repository.StudentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import java.io.InputStream;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -19,19 +23,65 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+/**
+ * Group import and manual group creation.
+ *
+ * Excel imports are timed per phase in {@code import.phase} (phase=parse|validate|persist_groups|update_students)
+ * and end to end in {@code import.duration} (outcome=success|invalid|error), with counters
+ * {@code import.rows}, {@code import.teams} and {@code import.errors} (one per rejected row, or one for
+ * an import that failed outright); all are tagged by course and file format. The timers publish histograms, so percentiles can be taken across instances.
+ */
 @Service
 public class GroupImportService {
 
     private final StudentRepository studentRepository;
-    private final GroupRepository groupRepository;
+    private final EntityManager entityManager;
+    private final CourseChangeSequencer changeSequencer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
 
-    public GroupImportService(StudentRepository studentRepository, GroupRepository groupRepository) {
+    public GroupImportService(StudentRepository studentRepository, EntityManager entityManager,
+            CourseChangeSequencer changeSequencer, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
         this.studentRepository = studentRepository;
-        this.groupRepository = groupRepository;
+        this.entityManager = entityManager;
+        this.changeSequencer = changeSequencer;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** xlsx, xls or other, from the file name; kept to a fixed set so it is safe as a metric tag. */
+    static String formatOf(MultipartFile file) {
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        if (name.endsWith(".xlsx")) return "xlsx";
+        if (name.endsWith(".xls")) return "xls";
+        return "other";
+    }
+
+    /** Records the phase that {@code sample} has been timing and starts timing the next one. */
+    private Timer.Sample endPhase(Timer.Sample sample, String phase, Tags tags) {
+        sample.stop(Timer.builder("import.phase")
+                .description("Time spent in one phase of a group import")
+                .tag("phase", phase)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        return Timer.start(meterRegistry);
+    }
+
+    private ImportValidationException rejected(List<String> errors, Tags tags) {
+        meterRegistry.counter("import.errors", tags).increment(errors.size());
+        return new ImportValidationException(errors);
+    }
+
+    private void publishGroupCreated(GroupEntity g) {
+        // delivered to course subscribers after commit (see CourseEventPublisher)
+        eventPublisher.publishEvent(new CourseChangeEvent(CourseChangeEvent.Type.GROUP_CREATED, g.getCourseId(),
+                g.getGroupId(), g.getGroupName(), List.copyOf(g.getMemberStudentIds())));
     }
 
     private static class RowRecord {
@@ -42,6 +92,10 @@ public class GroupImportService {
 
     @Transactional(rollbackFor = Exception.class)
     public List<GroupEntity> importFromExcel(MultipartFile file, Long courseId) {
+        Tags tags = Tags.of("course", String.valueOf(courseId), "format", formatOf(file));
+        Timer.Sample total = Timer.start(meterRegistry);
+        String outcome = "error";
+        Timer.Sample phase = Timer.start(meterRegistry);
         try (InputStream is = file.getInputStream(); Workbook wb = WorkbookFactory.create(is)) {
             Sheet sheet = wb.getSheetAt(0);
             Map<String, List<RowRecord>> teams = new HashMap<>();
@@ -87,7 +141,10 @@ public class GroupImportService {
                 teams.computeIfAbsent(teamCode, k -> new ArrayList<>()).add(rec);
             }
 
-            if (!errors.isEmpty()) throw new ImportValidationException(errors);
+            phase = endPhase(phase, "parse", tags);
+            meterRegistry.counter("import.rows", tags).increment(teams.values().stream().mapToInt(List::size).sum());
+            meterRegistry.counter("import.teams", tags).increment(teams.size());
+            if (!errors.isEmpty()) throw rejected(errors, tags);
 
             // Validate existence and enrollment
             Set<String> allStudentIds = teams.values().stream().flatMap(List::stream).map(r -> r.studentId).collect(Collectors.toSet());
@@ -120,9 +177,11 @@ public class GroupImportService {
                 }
             }
 
-            if (!errors.isEmpty()) throw new ImportValidationException(errors);
+            phase = endPhase(phase, "validate", tags);
+            if (!errors.isEmpty()) throw rejected(errors, tags);
 
             // Create groups and update students
+            long changeSeq = changeSequencer.next(courseId);
             List<GroupEntity> created = new ArrayList<>();
             Map<String, String> teamToGroupId = new HashMap<>();
             for (Map.Entry<String, List<RowRecord>> e : teams.entrySet()) {
@@ -131,11 +190,15 @@ public class GroupImportService {
                 String leaderId = rows.stream().filter(r -> r.memberNo == 1).findFirst().get().studentId;
                 String gid = UUID.randomUUID().toString();
                 List<String> members = rows.stream().map(r -> r.studentId).collect(Collectors.toList());
-                GroupEntity g = new GroupEntity(gid, team, courseId, leaderId, members, null, Instant.now());
-                groupRepository.save(g);
-                created.add(g);
+                created.add(new GroupEntity(gid, team, courseId, leaderId, members, null, Instant.now(), changeSeq));
                 teamToGroupId.put(team, gid);
             }
+            // new groups are persisted (not merged) so the INSERTs batch without a SELECT per group;
+            // flush inside the phase, otherwise they run at commit and the timer sees nothing
+            created.forEach(entityManager::persist);
+            entityManager.flush();
+
+            phase = endPhase(phase, "persist_groups", tags);
 
             // update students
             List<Student> toUpdate = studentsFound.stream().filter(s -> allStudentIds.contains(s.getStudentId())).collect(Collectors.toList());
@@ -143,14 +206,30 @@ public class GroupImportService {
                 // find which team
                 String team = teams.entrySet().stream().filter(en -> en.getValue().stream().anyMatch(r -> r.studentId.equals(s.getStudentId()))).findFirst().get().getKey();
                 s.setGroupId(teamToGroupId.get(team));
+                s.setChangeSeq(changeSeq);
             }
-            studentRepository.saveAll(toUpdate);
+            // the students are managed, so saveAll alone would leave the UPDATEs to the commit
+            studentRepository.saveAllAndFlush(toUpdate);
+            endPhase(phase, "update_students", tags);
+            created.forEach(this::publishGroupCreated);
+            outcome = "success";
             return created;
 
         } catch (ImportValidationException ex) {
+            outcome = "invalid";
             throw ex;
         } catch (Exception ex) {
+            // unreadable workbook, I/O or database failure: one error for the whole import
+            outcome = "error";
+            meterRegistry.counter("import.errors", tags).increment();
             throw new RuntimeException("Failed to import groups: " + ex.getMessage(), ex);
+        } finally {
+            total.stop(Timer.builder("import.duration")
+                    .description("End-to-end time of a group import")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
         }
     }
 
@@ -201,15 +280,18 @@ public class GroupImportService {
 
         if (!errors.isEmpty()) throw new ImportValidationException(errors);
 
+        long changeSeq = changeSequencer.next(courseId);
         String gid = UUID.randomUUID().toString();
-        GroupEntity g = new GroupEntity(gid, groupName, courseId, leaderStudentId, new ArrayList<>(memberStudentIds), null, Instant.now());
-        groupRepository.save(g);
+        GroupEntity g = new GroupEntity(gid, groupName, courseId, leaderStudentId, new ArrayList<>(memberStudentIds), null, Instant.now(), changeSeq);
+        entityManager.persist(g);
 
         // update students
         for (Student s : students) {
             s.setGroupId(gid);
+            s.setChangeSeq(changeSeq);
         }
         studentRepository.saveAll(students);
+        publishGroupCreated(g);
         return g;
     }
 }
@@ -0,0 +1,160 @@
+package com.scholarsync.backend.service;
+
+import com.scholarsync.backend.model.Role;
+
+import java.util.List;
+
+/**
+ * Recognises institutional IDs (Microsoft {@code jobTitle}) with a hand-written scanner instead of
+ * regular expressions. Classification returns a preallocated {@link IdPattern}, so it allocates nothing.
+ *
+ * Accepts exactly what the original patterns did:
+ * <ul>
+ *   <li>{@code \d{2}-\d{4}-\d{3}} student, e.g. 22-1234-567</li>
+ *   <li>{@code \d{4}-\d{5}} student, e.g. 2010-12345</li>
+ *   <li>{@code \d{1,4}} teacher, e.g. 1643</li>
+ *   <li>{@code .*ADMIN.*} admin (like the regex, {@code .} does not cross line breaks)</li>
+ * </ul>
+ */
+public final class InstitutionalIdClassifier {
+
+    public enum IdPattern {
+        STUDENT_PATTERN_1(Role.STUDENT, "\\d{2}-\\d{4}-\\d{3}", "STUDENT_PATTERN_1 (YY-####-###)"),
+        STUDENT_PATTERN_2(Role.STUDENT, "\\d{4}-\\d{5}", "STUDENT_PATTERN_2 (YYYY-#####)"),
+        TEACHER_PATTERN(Role.TEACHER, "\\d{1,4}", "TEACHER_PATTERN (Plain number 1–4 digits)"),
+        ADMIN_PATTERN(Role.ADMIN, ".*ADMIN.*|.*ADMINISTRATOR.*", "ADMIN_PATTERN"),
+        /** Non-empty ID matching no pattern. */
+        UNKNOWN(Role.UNKNOWN, null, "UNKNOWN"),
+        /** Missing or empty ID. */
+        NONE(Role.UNKNOWN, null, "NONE");
+
+        /** The patterns the scanner implements, in the order it checks them. */
+        public static final List<IdPattern> SCANNED = List.of(STUDENT_PATTERN_1, STUDENT_PATTERN_2, TEACHER_PATTERN, ADMIN_PATTERN);
+
+        private final Role role;
+        private final String regex;
+        private final String description;
+
+        IdPattern(Role role, String regex, String description) {
+            this.role = role;
+            this.regex = regex;
+            this.description = description;
+        }
+
+        /** The equivalent regular expression, or null for {@link #UNKNOWN} and {@link #NONE}. */
+        public String getRegex() {
+            return regex;
+        }
+
+        public Role getRole() {
+            return role;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private InstitutionalIdClassifier() {
+    }
+
+    /**
+     * Classifies a whole institutional ID, checking the patterns in the order listed above.
+     */
+    public static IdPattern classify(CharSequence id) {
+        if (id == null || id.length() == 0) {
+            return IdPattern.NONE;
+        }
+        int len = id.length();
+        if (len == 11 && isStudentPattern1(id, 0)) {
+            return IdPattern.STUDENT_PATTERN_1;
+        }
+        if (len == 10 && isStudentPattern2(id, 0)) {
+            return IdPattern.STUDENT_PATTERN_2;
+        }
+        if (len <= 4 && digitRun(id, 0, 4) == len) {
+            return IdPattern.TEACHER_PATTERN;
+        }
+        if (containsAdmin(id)) {
+            return IdPattern.ADMIN_PATTERN;
+        }
+        return IdPattern.UNKNOWN;
+    }
+
+    /**
+     * Length of the institutional ID at the start of {@code text} that is followed by a word
+     * boundary, or 0 if there is none. Equivalent to {@code ^(\d{2}-\d{4}-\d{3}|\d{4}-\d{5}|\d{1,4})\b},
+     * as used for display names like "22-0369-330 Giles Anthony".
+     */
+    public static int idPrefixLength(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int len = text.length();
+        if (len >= 11 && isStudentPattern1(text, 0) && isBoundary(text, 11)) {
+            return 11;
+        }
+        if (len >= 10 && isStudentPattern2(text, 0) && isBoundary(text, 10)) {
+            return 10;
+        }
+        // between two digits there is never a boundary, so only the whole leading run can match
+        int digits = digitRun(text, 0, 5);
+        if (digits >= 1 && digits <= 4 && isBoundary(text, digits)) {
+            return digits;
+        }
+        return 0;
+    }
+
+    private static boolean isStudentPattern1(CharSequence s, int from) {
+        return digitRun(s, from, 2) == 2 && s.charAt(from + 2) == '-'
+                && digitRun(s, from + 3, 4) == 4 && s.charAt(from + 7) == '-'
+                && digitRun(s, from + 8, 3) == 3;
+    }
+
+    private static boolean isStudentPattern2(CharSequence s, int from) {
+        return digitRun(s, from, 4) == 4 && s.charAt(from + 4) == '-'
+                && digitRun(s, from + 5, 5) == 5;
+    }
+
+    /** Number of consecutive ASCII digits starting at {@code from}, capped at {@code max}. */
+    private static int digitRun(CharSequence s, int from, int max) {
+        int end = Math.min(s.length(), from + max);
+        int i = from;
+        while (i < end && isDigit(s.charAt(i))) {
+            i++;
+        }
+        return i - from;
+    }
+
+    private static boolean containsAdmin(CharSequence s) {
+        boolean found = false;
+        for (int i = 0, len = s.length(); i < len; i++) {
+            char c = s.charAt(i);
+            if (isLineTerminator(c)) {
+                return false;
+            }
+            if (!found && c == 'A' && i + 5 <= len
+                    && s.charAt(i + 1) == 'D' && s.charAt(i + 2) == 'M' && s.charAt(i + 3) == 'I' && s.charAt(i + 4) == 'N') {
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    // a boundary after a digit: end of input or a non-word character next (java.util.regex's \b definition)
+    private static boolean isBoundary(CharSequence s, int index) {
+        if (index == s.length()) {
+            return true;
+        }
+        char c = s.charAt(index);
+        return !(Character.isLetterOrDigit(c) || c == '_');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,82 @@
+package com.scholarsync.backend.service;
+
+import com.scholarsync.backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for {@code users.last_login_at}. Logins only record the timestamp here; the
+ * buffer is flushed every {@code app.login.last-login-flush-ms} with one bulk UPDATE per distinct
+ * second (IDs chunked), so a burst of logins becomes a handful of statements instead of one row
+ * update each. Repeated logins by the same user between flushes collapse into a single write.
+ *
+ * Timestamps are stored at one-second precision. Pending writes are flushed on shutdown; a crash
+ * loses at most one interval of lastLoginAt updates.
+ */
+@Slf4j
+@Component
+public class LastLoginWriteBuffer {
+
+    private static final int MAX_IDS_PER_STATEMENT = 500;
+
+    private final UserRepository userRepository;
+    private final Map<UUID, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LastLoginWriteBuffer(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public void record(UUID userId, LocalDateTime loginAt) {
+        pending.merge(userId, loginAt.truncatedTo(ChronoUnit.SECONDS), (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.login.last-login-flush-ms:5000}",
+               initialDelayString = "${app.login.last-login-flush-ms:5000}")
+    @Transactional
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        Map<LocalDateTime, List<UUID>> byTimestamp = new TreeMap<>();
+        for (Map.Entry<UUID, LocalDateTime> e : pending.entrySet()) {
+            // only drop the entry if no newer login replaced it meanwhile
+            if (pending.remove(e.getKey(), e.getValue())) {
+                byTimestamp.computeIfAbsent(e.getValue(), t -> new ArrayList<>()).add(e.getKey());
+            }
+        }
+
+        int statements = 0;
+        int users = 0;
+        for (Map.Entry<LocalDateTime, List<UUID>> group : byTimestamp.entrySet()) {
+            List<UUID> ids = group.getValue();
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+                List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_STATEMENT));
+                userRepository.updateLastLoginAt(chunk, group.getKey());
+                statements++;
+            }
+            users += ids.size();
+        }
+        log.debug("Flushed lastLoginAt for {} users in {} statements", users, statements);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
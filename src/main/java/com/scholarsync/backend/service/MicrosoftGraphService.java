@@ -2,21 +2,127 @@ package com.scholarsync.backend.service;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
 import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Client for the Microsoft Graph endpoints used at login.
+ *
+ * Graph calls run on their own bounded connection pool with explicit connect and response
+ * timeouts, so a slow Graph cannot hold more than {@code app.graph.max-connections} sockets or
+ * queue more than {@code app.graph.max-pending} callers. Blocking callers should use
+ * {@link #getUserProfileOrElse}, which gives up after the latency budget and uses a fallback.
+ *
+ * Profiles are also cached by Microsoft object ID ({@link #getCachedUserProfileOrElse}): within
+ * {@code app.graph.profile-cache.ttl-ms} no Graph call is made, and for up to
+ * {@code app.graph.profile-cache.max-stale-ms} after that the cached profile is still returned
+ * immediately while a refresh runs in the background.
+ *
+ * Every fetch goes through a bulkhead ({@code app.graph.bulkhead.max-concurrent} calls in flight)
+ * and a {@link CircuitBreaker}; while Graph is known to be down, callers get the fallback at once
+ * instead of waiting for yet another timeout.
+ */
+@Slf4j
 @Service
 public class MicrosoftGraphService {
 
     private final WebClient webClient;
-    private static final String GRAPH_API_BASE_URL = "https://graph.microsoft.com/v1.0";
+    private final ConnectionProvider connectionProvider;
+    private final Duration latencyBudget;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final Counter rejectedCircuitOpen;
+    private final Counter rejectedBulkheadFull;
+
+    private final Map<String, CachedProfile> profileCache = new ConcurrentHashMap<>();
+    private final long profileTtlMillis;
+    private final long profileMaxStaleMillis;
+    private final int profileCacheMaxSize;
+
+    private final Counter cacheHits;
+    private final Counter cacheStaleHits;
+    private final Counter cacheMisses;
+    private final Timer inlineFetchTimer;
+    private final Timer backgroundRefreshTimer;
 
-    public MicrosoftGraphService() {
+    private static final class CachedProfile {
+        final UserProfile profile;
+        final long fetchedAtMillis;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        CachedProfile(UserProfile profile, long fetchedAtMillis) {
+            this.profile = profile;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+    }
+
+    public MicrosoftGraphService(@Value("${app.graph.base-url:https://graph.microsoft.com/v1.0}") String baseUrl,
+                                 @Value("${app.graph.connect-timeout-ms:2000}") int connectTimeoutMillis,
+                                 @Value("${app.graph.read-timeout-ms:3000}") long readTimeoutMillis,
+                                 @Value("${app.graph.max-connections:50}") int maxConnections,
+                                 @Value("${app.graph.max-pending:100}") int maxPending,
+                                 @Value("${app.graph.latency-budget-ms:2500}") long latencyBudgetMillis,
+                                 @Value("${app.graph.profile-cache.ttl-ms:3600000}") long profileTtlMillis,
+                                 @Value("${app.graph.profile-cache.max-stale-ms:86400000}") long profileMaxStaleMillis,
+                                 @Value("${app.graph.profile-cache.max-size:10000}") int profileCacheMaxSize,
+                                 @Value("${app.graph.breaker.failure-threshold:5}") int breakerFailureThreshold,
+                                 @Value("${app.graph.breaker.open-ms:30000}") long breakerOpenMillis,
+                                 @Value("${app.graph.bulkhead.max-concurrent:20}") int bulkheadMaxConcurrent,
+                                 MeterRegistry meterRegistry) {
+        this.latencyBudget = Duration.ofMillis(latencyBudgetMillis);
+        this.profileTtlMillis = profileTtlMillis;
+        this.profileMaxStaleMillis = profileMaxStaleMillis;
+        this.profileCacheMaxSize = profileCacheMaxSize;
+        this.connectionProvider = ConnectionProvider.builder("microsoft-graph")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPending)
+                .pendingAcquireTimeout(latencyBudget)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(readTimeoutMillis));
         this.webClient = WebClient.builder()
-                .baseUrl(GRAPH_API_BASE_URL)
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
+
+        this.cacheHits = Counter.builder("graph.profile.cache").tag("result", "hit").register(meterRegistry);
+        this.cacheStaleHits = Counter.builder("graph.profile.cache").tag("result", "stale").register(meterRegistry);
+        this.cacheMisses = Counter.builder("graph.profile.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("graph.profile.cache.hit.ratio", this, MicrosoftGraphService::cacheHitRatio)
+                .description("Share of profile lookups answered from the cache, fresh or stale")
+                .register(meterRegistry);
+        Gauge.builder("graph.profile.cache.size", profileCache, Map::size).register(meterRegistry);
+        this.circuitBreaker = new CircuitBreaker("graph.breaker", breakerFailureThreshold, breakerOpenMillis, meterRegistry);
+        this.bulkhead = new Semaphore(bulkheadMaxConcurrent);
+        this.rejectedCircuitOpen = Counter.builder("graph.calls.rejected").tag("reason", "circuit_open").register(meterRegistry);
+        this.rejectedBulkheadFull = Counter.builder("graph.calls.rejected").tag("reason", "bulkhead_full").register(meterRegistry);
+        this.inlineFetchTimer = Timer.builder("graph.profile.fetch").tag("mode", "inline").register(meterRegistry);
+        this.backgroundRefreshTimer = Timer.builder("graph.profile.fetch").tag("mode", "background").register(meterRegistry);
     }
 
     /**
@@ -36,6 +142,140 @@ public class MicrosoftGraphService {
                 .bodyToMono(UserProfile.class);
     }
 
+    /**
+     * Fetches the user profile, waiting at most {@code app.graph.latency-budget-ms}. On timeout,
+     * pool exhaustion, an open circuit, a full bulkhead or any Graph error the request is cancelled
+     * (or never sent) and {@code fallback} is used instead.
+     */
+    public UserProfile getUserProfileOrElse(String accessToken, Supplier<UserProfile> fallback) {
+        UserProfile profile = fetchWithinBudget(accessToken);
+        return profile != null ? profile : fallback.get();
+    }
+
+    /**
+     * Like {@link #getUserProfileOrElse}, but answers from the profile cache when the user's
+     * object ID (the ID token's {@code oid}) is known. Fallback profiles are never cached.
+     */
+    public UserProfile getCachedUserProfileOrElse(String objectId, String accessToken, Supplier<UserProfile> fallback) {
+        if (objectId == null) {
+            return getUserProfileOrElse(accessToken, fallback);
+        }
+        CachedProfile cached = profileCache.get(objectId);
+        if (cached != null) {
+            long age = System.currentTimeMillis() - cached.fetchedAtMillis;
+            if (age < profileTtlMillis) {
+                cacheHits.increment();
+                return cached.profile;
+            }
+            if (age < profileTtlMillis + profileMaxStaleMillis) {
+                cacheStaleHits.increment();
+                refreshInBackground(accessToken, cached);
+                return cached.profile;
+            }
+            profileCache.remove(objectId, cached);
+        }
+
+        cacheMisses.increment();
+        long start = System.nanoTime();
+        UserProfile profile = fetchWithinBudget(accessToken);
+        inlineFetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (profile == null) {
+            return fallback.get();
+        }
+        cacheProfile(profile);
+        return profile;
+    }
+
+    /** Drops a cached profile, e.g. after the user's Graph data is known to have changed. */
+    public void evictProfile(String objectId) {
+        profileCache.remove(objectId);
+    }
+
+    private UserProfile fetchWithinBudget(String accessToken) {
+        return guardedFetch(accessToken)
+                .onErrorResume(e -> {
+                    log.warn("Microsoft Graph profile fetch failed, using fallback: {}", e.toString());
+                    return Mono.empty();
+                })
+                .block();
+    }
+
+    /**
+     * {@link #getUserProfile} behind the bulkhead and circuit breaker, limited to the latency budget.
+     * Completes empty without calling Graph when either refuses the call.
+     */
+    private Mono<UserProfile> guardedFetch(String accessToken) {
+        if (!bulkhead.tryAcquire()) {
+            rejectedBulkheadFull.increment();
+            return Mono.empty();
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            rejectedCircuitOpen.increment();
+            return Mono.empty();
+        }
+        return getUserProfile(accessToken)
+                .timeout(latencyBudget)
+                .doOnSuccess(profile -> circuitBreaker.onSuccess())
+                .doOnError(e -> {
+                    if (isGraphFault(e)) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                })
+                .doOnCancel(circuitBreaker::onIgnored)
+                .doFinally(signal -> bulkhead.release());
+    }
+
+    // 4xx other than throttling is about this caller's token, not Graph's health
+    private static boolean isGraphFault(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return true;
+    }
+
+    private void refreshInBackground(String accessToken, CachedProfile stale) {
+        // one refresh per entry at a time; runs on the Netty event loop, no request thread waits for it
+        if (!stale.refreshing.compareAndSet(false, true)) return;
+        long start = System.nanoTime();
+        guardedFetch(accessToken)
+                .doFinally(signal -> {
+                    backgroundRefreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    stale.refreshing.set(false);
+                })
+                .subscribe(this::cacheProfile,
+                        e -> log.debug("Background Graph profile refresh failed, keeping stale entry: {}", e.toString()));
+    }
+
+    private void cacheProfile(UserProfile profile) {
+        if (profile.getId() == null) return;
+        if (profileCache.size() >= profileCacheMaxSize) {
+            long oldestUsable = System.currentTimeMillis() - profileTtlMillis - profileMaxStaleMillis;
+            profileCache.values().removeIf(c -> c.fetchedAtMillis <= oldestUsable);
+            // still full: shed an arbitrary tenth rather than growing without bound
+            Iterator<String> it = profileCache.keySet().iterator();
+            int toShed = profileCache.size() - (profileCacheMaxSize - profileCacheMaxSize / 10);
+            while (toShed-- > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        profileCache.put(profile.getId(), new CachedProfile(profile, System.currentTimeMillis()));
+    }
+
+    private double cacheHitRatio() {
+        double hits = cacheHits.count() + cacheStaleHits.count();
+        double total = hits + cacheMisses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class UserProfile {
@@ -0,0 +1,170 @@
+package com.scholarsync.backend.service;
+
+import com.scholarsync.backend.dto.RoleReevaluationProgress;
+import com.scholarsync.backend.dto.RoleReevaluationProgress.Status;
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.repository.UserRepository;
+import com.scholarsync.backend.repository.UserRepository.RoleView;
+import com.scholarsync.backend.security.UserVersionTable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Re-applies the current role rules to every stored user, for when the rules change and users
+ * should not have to wait for their next login.
+ *
+ * Users are read in keyset pages of {@code app.roles.reevaluation.page-size} (id, institutional ID
+ * and role only, no entities), so memory stays constant however large the table is. Each page is
+ * one short read followed by at most one UPDATE per target role, each in its own transaction;
+ * nothing is held open across pages. Only rows whose role actually changes are written. Their
+ * tokens are invalidated at once on the instance running the job, through
+ * {@link UserVersionTable#recordRole}; other instances only learn of the new role when their
+ * table re-reads the user, within {@code jwt.user-versions.ttl-ms}.
+ *
+ * One run at a time, on a background thread; {@link #getProgress()} reports how far it got.
+ */
+@Slf4j
+@Service
+public class RoleReevaluationJob {
+
+    private final UserRepository userRepository;
+    private final RoleDeterminationService roleDeterminationService;
+    private final UserVersionTable userVersionTable;
+    private final int pageSize;
+    private final ExecutorService runner;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelRequested;
+
+    private volatile Status status = Status.IDLE;
+    private volatile long totalUsers;
+    private volatile long scanned;
+    private volatile long updated;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    public RoleReevaluationJob(UserRepository userRepository,
+                               RoleDeterminationService roleDeterminationService,
+                               UserVersionTable userVersionTable,
+                               @Value("${app.roles.reevaluation.page-size:1000}") int pageSize) {
+        this.userRepository = userRepository;
+        this.roleDeterminationService = roleDeterminationService;
+        this.userVersionTable = userVersionTable;
+        this.pageSize = Math.max(1, pageSize);
+        this.runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "role-reevaluation");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts a run in the background.
+     *
+     * @return false if a run is already in progress
+     */
+    public synchronized boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        cancelRequested = false;
+        scanned = 0;
+        updated = 0;
+        totalUsers = 0;
+        error = null;
+        finishedAt = null;
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+        runner.execute(this::run);
+        return true;
+    }
+
+    /** Stops the current run after the page in progress. */
+    public boolean cancel() {
+        if (!running.get()) return false;
+        cancelRequested = true;
+        return true;
+    }
+
+    public RoleReevaluationProgress getProgress() {
+        long total = totalUsers;
+        long done = scanned;
+        int percent = status == Status.COMPLETED ? 100
+                : total == 0 ? 0 : (int) Math.min(99, done * 100 / total);
+        return new RoleReevaluationProgress(status, total, done, updated, percent, startedAt, finishedAt, error);
+    }
+
+    void run() {
+        Status outcome = Status.FAILED;
+        try {
+            totalUsers = userRepository.count();
+            log.info("Role re-evaluation started for {} users", totalUsers);
+            Pageable page = PageRequest.of(0, pageSize);
+            UUID after = null;
+            while (!cancelRequested) {
+                List<RoleView> users = after == null
+                        ? userRepository.findRolePage(page)
+                        : userRepository.findRolePageAfter(after, page);
+                if (users.isEmpty()) break;
+                updated += applyPage(users);
+                scanned += users.size();
+                after = users.get(users.size() - 1).getId();
+                if (users.size() < pageSize) break;
+            }
+            outcome = cancelRequested ? Status.CANCELLED : Status.COMPLETED;
+            log.info("Role re-evaluation {}: {} users scanned, {} roles changed", outcome, scanned, updated);
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            log.error("Role re-evaluation failed after {} users", scanned, e);
+        } finally {
+            finish(outcome);
+        }
+    }
+
+    // under start()'s lock, so a caller that sees the run finished can start the next one
+    private synchronized void finish(Status outcome) {
+        finishedAt = LocalDateTime.now();
+        status = outcome;
+        running.set(false);
+    }
+
+    private int applyPage(List<RoleView> users) {
+        Map<Role, List<UUID>> changes = new EnumMap<>(Role.class);
+        for (RoleView user : users) {
+            Role role = roleDeterminationService.determineRole(user.getInstitutionalId());
+            if (role != user.getRole()) {
+                changes.computeIfAbsent(role, r -> new ArrayList<>()).add(user.getId());
+            }
+        }
+        int changed = 0;
+        for (Map.Entry<Role, List<UUID>> change : changes.entrySet()) {
+            changed += userRepository.updateRole(change.getValue(), change.getKey());
+            // local table only; other instances pick the change up on their TTL re-read
+            for (UUID id : change.getValue()) {
+                userVersionTable.recordRole(id, change.getKey());
+            }
+        }
+        return changed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancelRequested = true;
+        runner.shutdown();
+    }
+}
@@ -0,0 +1,193 @@
+package com.scholarsync.backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scholarsync.backend.dto.RoleRule;
+import com.scholarsync.backend.service.InstitutionalIdClassifier.IdPattern;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Institutional-ID role rules loaded from {@code app.roles.rules-location} (a JSON array of
+ * {@link RoleRule}; default {@code classpath:role-rules.json}) and re-read when the file changes.
+ *
+ * Each load compiles all rules into one alternation regex and publishes it through a single volatile
+ * write, so {@link #match} never sees a partially loaded table and takes no lock. A file that fails
+ * to parse or compile is logged and the previous rules stay in effect.
+ *
+ * When the table is exactly the stock rule set, matching uses {@link InstitutionalIdClassifier}'s
+ * scanner instead of the regex.
+ */
+@Slf4j
+@Component
+public class RoleRuleTable {
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile CompiledRules current = CompiledRules.EMPTY;
+    private volatile long loadedLastModified = -1;
+    // serialises reloads; a lock rather than synchronized since it is held across file I/O
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public RoleRuleTable(ResourceLoader resourceLoader,
+                         @Value("${app.roles.rules-location:classpath:role-rules.json}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+    }
+
+    /** Immutable compiled form of one version of the table. */
+    static final class CompiledRules {
+        static final CompiledRules EMPTY = new CompiledRules(List.of(), null, new int[0], false);
+
+        final List<RoleRule> rules;
+        final Pattern combined;
+        // group number in the combined pattern that belongs to each rule
+        final int[] ruleGroups;
+        final boolean stock;
+        // Matchers are reused per thread; each compiled table has its own, so a swap needs no coordination
+        final ThreadLocal<Matcher> matchers;
+
+        private CompiledRules(List<RoleRule> rules, Pattern combined, int[] ruleGroups, boolean stock) {
+            this.rules = rules;
+            this.combined = combined;
+            this.ruleGroups = ruleGroups;
+            this.stock = stock;
+            this.matchers = combined == null ? null : ThreadLocal.withInitial(() -> combined.matcher(""));
+        }
+
+        static CompiledRules compile(List<RoleRule> loaded) {
+            List<RoleRule> rules = new ArrayList<>(loaded);
+            rules.sort(Comparator.comparingInt(RoleRule::getPriority).reversed());
+            if (rules.isEmpty()) {
+                return EMPTY;
+            }
+
+            StringBuilder regex = new StringBuilder();
+            int[] ruleGroups = new int[rules.size()];
+            int group = 1;
+            for (int i = 0; i < rules.size(); i++) {
+                RoleRule rule = rules.get(i);
+                if (rule.getPattern() == null || rule.getRole() == null) {
+                    throw new IllegalArgumentException("Rule " + rule.getId() + " needs a pattern and a role");
+                }
+                int ownGroups = Pattern.compile(rule.getPattern()).matcher("").groupCount();
+                if (i > 0) regex.append('|');
+                regex.append('(').append(rule.getPattern()).append(')');
+                ruleGroups[i] = group;
+                group += 1 + ownGroups;
+            }
+            return new CompiledRules(List.copyOf(rules), Pattern.compile(regex.toString()), ruleGroups, isStock(rules));
+        }
+
+        private static boolean isStock(List<RoleRule> rules) {
+            if (rules.size() != IdPattern.SCANNED.size()) return false;
+            for (int i = 0; i < rules.size(); i++) {
+                IdPattern builtIn = IdPattern.SCANNED.get(i);
+                if (!builtIn.getRegex().equals(rules.get(i).getPattern()) || builtIn.getRole() != rules.get(i).getRole()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        RoleRule match(String id) {
+            if (stock) {
+                IdPattern p = InstitutionalIdClassifier.classify(id);
+                int index = IdPattern.SCANNED.indexOf(p);
+                return index < 0 ? null : rules.get(index);
+            }
+            if (combined == null) return null;
+            Matcher m = matchers.get().reset(id);
+            if (!m.matches()) return null;
+            for (int i = 0; i < ruleGroups.length; i++) {
+                if (m.start(ruleGroups[i]) >= 0) {
+                    return rules.get(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * The highest-priority rule that fully matches {@code id}, or null.
+     */
+    public RoleRule match(String id) {
+        if (id == null || id.isEmpty()) return null;
+        return current.match(id);
+    }
+
+    public List<RoleRule> getRules() {
+        return current.rules;
+    }
+
+    @Scheduled(fixedDelayString = "${app.roles.reload-interval-ms:30000}",
+               initialDelayString = "${app.roles.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        long lastModified = lastModified(resourceLoader.getResource(location));
+        if (lastModified > 0 && lastModified != loadedLastModified) {
+            reload();
+        }
+    }
+
+    /**
+     * Reads and compiles the rule file, replacing the current table if it is valid.
+     *
+     * @return true if the new rules are now in effect
+     */
+    public boolean reload() {
+        reloadLock.lock();
+        try {
+            return reloadLocked();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private boolean reloadLocked() {
+        Resource resource = resourceLoader.getResource(location);
+        long lastModified = lastModified(resource);
+        try (InputStream in = resource.getInputStream()) {
+            List<RoleRule> rules = objectMapper.readValue(in, new TypeReference<List<RoleRule>>() { });
+            CompiledRules compiled = CompiledRules.compile(rules);
+            current = compiled;
+            log.info("Loaded {} role rules from {}{}", compiled.rules.size(), location, compiled.stock ? " (stock rules, scanner)" : "");
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            // PatternSyntaxException is an IllegalArgumentException
+            log.error("Could not load role rules from {}, keeping the previous {} rules: {}", location, current.rules.size(), e.getMessage());
+            return false;
+        } finally {
+            loadedLastModified = lastModified;
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // e.g. inside a jar: not reloadable
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.scholarsync.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scholarsync.backend.dto.CourseChangeEvent;
+import com.scholarsync.backend.dto.StudentDto;
+import com.scholarsync.backend.model.Student;
+import com.scholarsync.backend.repository.StudentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Course rosters ({@code GET /api/students?courseId=} without {@code q}) kept as the finished response
+ * body: the JSON array of {@link StudentDto} and its gzip encoding, so a hit is written out as bytes
+ * with no entity loading or object mapping.
+ *
+ * A course's snapshot is dropped when a {@link CourseChangeEvent} for it commits and rebuilt by the
+ * next request; concurrent misses for one course share a single build. Snapshots older than
+ * {@code max-age-ms} are also rebuilt, which bounds staleness from writes made by other instances.
+ * Total size (JSON plus gzip) is capped at {@code max-bytes}, evicting the least recently used courses.
+ */
+@Service
+public class RosterSnapshotCache {
+
+    public static final class Snapshot {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final long builtAtMillis;
+
+        Snapshot(byte[] json, byte[] gzip, long builtAtMillis) {
+            this.json = json;
+            this.gzip = gzip;
+            this.builtAtMillis = builtAtMillis;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        long size() {
+            return json.length + gzip.length;
+        }
+    }
+
+    private final StudentRepository studentRepository;
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+
+    // access-ordered, so iteration starts at the least recently used course; guarded by itself
+    private final LinkedHashMap<Long, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    // bumped on every change to a course; a build only stores its snapshot if none happened meanwhile
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<Snapshot>> building = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public RosterSnapshotCache(StudentRepository studentRepository, ObjectMapper objectMapper,
+                               @Value("${app.students.snapshot.max-bytes:67108864}") long maxBytes,
+                               @Value("${app.students.snapshot.max-age-ms:30000}") long maxAgeMillis,
+                               MeterRegistry meterRegistry) {
+        this.studentRepository = studentRepository;
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.hits = Counter.builder("roster.snapshot.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("roster.snapshot.cache").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("roster.snapshot.evictions").register(meterRegistry);
+        Gauge.builder("roster.snapshot.cache.bytes", this, RosterSnapshotCache::getTotalBytes).register(meterRegistry);
+    }
+
+    public Snapshot get(Long courseId) {
+        Snapshot cached = lookup(courseId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+        CompletableFuture<Snapshot> running = building.putIfAbsent(courseId, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            long generation = generation(courseId).get();
+            Snapshot built = build(courseId);
+            store(courseId, built, generation);
+            mine.complete(built);
+            return built;
+        } catch (Throwable e) {
+            // anything, an OutOfMemoryError included: requests joined on this build must not wait forever
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(courseId, mine);
+        }
+    }
+
+    /** Drops the course's snapshot once the change is committed, so the next request sees it. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseChange(CourseChangeEvent event) {
+        invalidate(event.getCourseId());
+    }
+
+    public void invalidate(Long courseId) {
+        generation(courseId).incrementAndGet();
+        // requests arriving from now on start a fresh build instead of joining one that read old rows
+        building.remove(courseId);
+        synchronized (snapshots) {
+            Snapshot removed = snapshots.remove(courseId);
+            if (removed != null) {
+                totalBytes -= removed.size();
+            }
+        }
+    }
+
+    public long getTotalBytes() {
+        synchronized (snapshots) {
+            return totalBytes;
+        }
+    }
+
+    private AtomicLong generation(Long courseId) {
+        return generations.computeIfAbsent(courseId, k -> new AtomicLong());
+    }
+
+    private Snapshot lookup(Long courseId) {
+        synchronized (snapshots) {
+            Snapshot snapshot = snapshots.get(courseId);
+            if (snapshot != null && maxAgeMillis > 0 && System.currentTimeMillis() - snapshot.builtAtMillis > maxAgeMillis) {
+                snapshots.remove(courseId);
+                totalBytes -= snapshot.size();
+                return null;
+            }
+            return snapshot;
+        }
+    }
+
+    Snapshot build(Long courseId) {
+        List<Student> students = studentRepository.findAllByCourseId(courseId);
+        List<StudentDto> dtos = students.stream()
+                .map(s -> new StudentDto(s.getStudentId(), s.getCourseId(), s.getGroupId(), s.getLastName(), s.getFirstName(), s.getEmail()))
+                .toList();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(dtos);
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+                out.write(json);
+            }
+            return new Snapshot(json, gzipped.toByteArray(), System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize roster of course " + courseId, e);
+        }
+    }
+
+    private void store(Long courseId, Snapshot snapshot, long generation) {
+        if (snapshot.size() > maxBytes) {
+            return;
+        }
+        synchronized (snapshots) {
+            if (generation(courseId).get() != generation) {
+                return; // the course changed while we were reading it
+            }
+            Snapshot previous = snapshots.put(courseId, snapshot);
+            totalBytes += snapshot.size() - (previous == null ? 0 : previous.size());
+            Iterator<Map.Entry<Long, Snapshot>> eldest = snapshots.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<Long, Snapshot> entry = eldest.next();
+                if (entry.getKey().equals(courseId)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue().size();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
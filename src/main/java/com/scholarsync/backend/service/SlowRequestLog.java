@@ -0,0 +1,72 @@
+package com.scholarsync.backend.service;
+
+import com.scholarsync.backend.dto.SlowRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The slowest recent requests over {@code app.monitoring.slow-requests.threshold-ms}: at most
+ * {@code capacity} of them, from the last {@code window-ms}. They are held in a min-heap by
+ * duration, so when it is full a new request displaces the fastest entry (or is dropped if it is
+ * faster still); a burst of requests just over the threshold cannot push out the real outliers.
+ * Entries older than the window are dropped, so one spike does not hold a slot forever.
+ */
+@Component
+public class SlowRequestLog {
+
+    private static final Comparator<SlowRequest> BY_DURATION = Comparator.comparingLong(SlowRequest::getDurationMs);
+
+    private final long thresholdMillis;
+    private final int capacity;
+    private final Duration window;
+    private final PriorityQueue<SlowRequest> slowest;
+
+    public SlowRequestLog(@Value("${app.monitoring.slow-requests.threshold-ms:500}") long thresholdMillis,
+                          @Value("${app.monitoring.slow-requests.capacity:100}") int capacity,
+                          @Value("${app.monitoring.slow-requests.window-ms:3600000}") long windowMillis) {
+        this.thresholdMillis = thresholdMillis;
+        this.capacity = Math.max(1, capacity);
+        this.window = Duration.ofMillis(windowMillis);
+        this.slowest = new PriorityQueue<>(this.capacity, BY_DURATION);
+    }
+
+    public boolean isSlow(long durationMillis) {
+        return durationMillis >= thresholdMillis;
+    }
+
+    public synchronized void record(SlowRequest request) {
+        if (slowest.size() >= capacity) {
+            dropExpired();
+        }
+        if (slowest.size() < capacity) {
+            slowest.add(request);
+        } else if (request.getDurationMs() > slowest.peek().getDurationMs()) {
+            slowest.poll();
+            slowest.add(request);
+        }
+    }
+
+    /** Retained slow requests, slowest first. */
+    public synchronized List<SlowRequest> snapshot() {
+        dropExpired();
+        List<SlowRequest> result = new ArrayList<>(slowest);
+        result.sort(BY_DURATION.reversed());
+        return result;
+    }
+
+    private void dropExpired() {
+        Instant cutoff = Instant.now().minus(window);
+        slowest.removeIf(r -> r.getAt() != null && r.getAt().isBefore(cutoff));
+    }
+
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+}
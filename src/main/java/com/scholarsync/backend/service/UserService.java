@@ -3,12 +3,16 @@ package com.scholarsync.backend.service;
 import com.scholarsync.backend.model.Role;
 import com.scholarsync.backend.model.User;
 import com.scholarsync.backend.repository.UserRepository;
+import com.scholarsync.backend.security.UserVersionTable;
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,6 +22,19 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final RoleDeterminationService roleDeterminationService;
+    private final UserVersionTable userVersionTable;
+    private final LastLoginWriteBuffer lastLoginWriteBuffer;
+    private final EntityManager entityManager;
+
+    /**
+     * Outcome of a login upsert: the signed-in user and whether this login registered them.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class LoginResult {
+        private final User user;
+        private final boolean newUser;
+    }
 
     /**
      * Unified sign up/login via Microsoft OAuth: Creates a new user if not exists, or logs in existing user
@@ -37,46 +54,73 @@ public class UserService {
             String email,
             String displayName,
             String institutionalId) {
-        
+        return upsertFromOAuth(microsoftId, email, displayName, institutionalId).getUser();
+    }
+
+    /**
+     * Login-path variant of {@link #createOrUpdateUserFromOAuth} that also reports whether the user is new,
+     * using a single lookup.
+     *
+     * An existing user's row is only updated when a profile field or the derived role changed. Otherwise
+     * just lastLoginAt moved, and that is handed to the {@link LastLoginWriteBuffer} to be written in a batch.
+     */
+    @Transactional
+    public LoginResult upsertFromOAuth(
+            String microsoftId,
+            String email,
+            String displayName,
+            String institutionalId) {
+
+        LocalDateTime now = LocalDateTime.now();
         Optional<User> existingUser = userRepository.findByMicrosoftId(microsoftId);
-        boolean isNewUser = existingUser.isEmpty();
-        
-        if (isNewUser) {
+
+        if (existingUser.isEmpty()) {
             // NEW USER: Auto-register via OAuth (registration only possible via OAuth)
             Role role = roleDeterminationService.determineRole(institutionalId);
-            
+
             User newUser = User.builder()
                     .microsoftId(microsoftId)
                     .email(email)
                     .displayName(displayName)
                     .institutionalId(institutionalId)
                     .role(role)
-                    .accountCreatedAt(LocalDateTime.now())
-                    .lastLoginAt(LocalDateTime.now())
+                    .accountCreatedAt(now)
+                    .lastLoginAt(now)
                     .isActive(true)
                     .build();
-            
-            return userRepository.save(newUser);
-        } else {
-            // EXISTING USER: Update and sign in via OAuth
-            User user = existingUser.get();
+
+            User saved = userRepository.save(newUser);
+            userVersionTable.record(saved);
+            return new LoginResult(saved, true);
+        }
+
+        // EXISTING USER: Update and sign in via OAuth
+        User user = existingUser.get();
+        // Re-evaluate role in case institutionalId changed
+        Role newRole = roleDeterminationService.determineRole(institutionalId);
+
+        boolean profileChanged = !Objects.equals(user.getDisplayName(), displayName)
+                || !Objects.equals(user.getInstitutionalId(), institutionalId)
+                || !Objects.equals(user.getEmail(), email)
+                || user.getRole() != newRole;
+
+        if (profileChanged) {
             user.setDisplayName(displayName);
             user.setInstitutionalId(institutionalId);
-            user.setLastLoginAt(LocalDateTime.now());
-            
-            // Re-evaluate role if institutionalId changed
-            Role newRole = roleDeterminationService.determineRole(institutionalId);
-            if (!user.getRole().equals(newRole)) {
-                user.setRole(newRole);
-            }
-            
-            // Update email if changed
-            if (!user.getEmail().equals(email)) {
-                user.setEmail(email);
-            }
-            
-            return userRepository.save(user);
+            user.setEmail(email);
+            user.setRole(newRole);
+            user.setLastLoginAt(now);
+            User saved = userRepository.save(user);
+            // bumps the token version if the role changed, so older JWTs stop carrying the stale role
+            userVersionTable.record(saved);
+            return new LoginResult(saved, false);
         }
+
+        // Nothing but lastLoginAt changed: no UPDATE now. Detach first so dirty checking doesn't write it anyway.
+        lastLoginWriteBuffer.record(user.getId(), now);
+        entityManager.detach(user);
+        user.setLastLoginAt(now);
+        return new LoginResult(user, false);
     }
 
     public Optional<User> findByMicrosoftId(String microsoftId) {
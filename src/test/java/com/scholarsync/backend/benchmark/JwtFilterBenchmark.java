@@ -0,0 +1,162 @@
+package com.scholarsync.backend.benchmark;
+
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.RevokedTokenRepository;
+import com.scholarsync.backend.repository.UserRepository;
+import com.scholarsync.backend.security.JwtAuthenticationFilter;
+import com.scholarsync.backend.security.JwtService;
+import com.scholarsync.backend.security.TokenRevocationService;
+import com.scholarsync.backend.security.UserVersionTable;
+import com.scholarsync.backend.service.UserService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Bearer-token filter throughput: the previous implementation (key and parser rebuilt per call,
+ * token parsed twice) against the current one, with and without a claims-cache hit, plus the
+ * stateful mode ({@code jwt.stateless-auth=false}, user looked up through a stubbed UserService that
+ * stands in for the database) and a request without a token. Allocation per request comes from
+ * {@code -prof gc} (see {@link JwtServiceBenchmark} for the service on its own).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+    static final FilterChain NOOP_CHAIN = (req, res) -> { };
+
+    User user;
+    UserService userService;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+    String token;
+
+    JwtAuthenticationFilter cachedFilter;
+    JwtAuthenticationFilter statefulFilter;
+    MockHttpServletRequest anonymousRequest;
+
+    // distinct tokens cycled through a tiny cache, so every call verifies the signature
+    JwtAuthenticationFilter uncachedFilter;
+    MockHttpServletRequest[] uncachedRequests;
+    int next;
+
+    @Setup
+    public void setup() {
+        user = User.builder().id(UUID.randomUUID()).email("bench@cit.edu").microsoftId("ms-bench")
+                .role(Role.STUDENT).build();
+        // never re-read: the mocked repository knows no users
+        UserVersionTable versions = new UserVersionTable(Mockito.mock(UserRepository.class), Long.MAX_VALUE, 100000);
+        versions.record(user);
+        TokenRevocationService revocations = new TokenRevocationService(Mockito.mock(RevokedTokenRepository.class), 100000, 0.01);
+        userService = new UserService(null, null, versions, null, null) {
+            @Override
+            public Optional<User> findByEmail(String email) {
+                return Optional.of(user);
+            }
+        };
+
+        JwtService jwtService = new JwtService(versions, SECRET, 1800000, 10000);
+        token = jwtService.generateToken(user);
+        cachedFilter = new JwtAuthenticationFilter(jwtService, userService, versions, revocations, true);
+        statefulFilter = new JwtAuthenticationFilter(jwtService, userService, versions, revocations, false);
+        request = bearer(token);
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/public/health");
+        response = new MockHttpServletResponse();
+
+        JwtService uncachedService = new JwtService(versions, SECRET, 1800000, 1);
+        uncachedFilter = new JwtAuthenticationFilter(uncachedService, userService, versions, revocations, true);
+        uncachedRequests = new MockHttpServletRequest[1024];
+        for (int i = 0; i < uncachedRequests.length; i++) {
+            User u = User.builder().id(UUID.randomUUID()).email("bench" + i + "@cit.edu").microsoftId("ms-" + i)
+                    .role(Role.STUDENT).build();
+            versions.record(u);
+            uncachedRequests[i] = bearer(uncachedService.generateToken(u));
+        }
+    }
+
+    static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest r = new MockHttpServletRequest("GET", "/api/students");
+        r.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        return r;
+    }
+
+    @Benchmark
+    public Object legacyFilter() {
+        // what JwtAuthenticationFilter did before: isTokenValid + extractEmail, each building a key and parser
+        String t = request.getHeader(HttpHeaders.AUTHORIZATION).substring(7);
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build().parseClaimsJws(t);
+        Claims claims = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build()
+                .parseClaimsJws(t).getBody();
+        User u = userService.findByEmail(claims.get("email", String.class)).get();
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(u, null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + u.getRole().name())));
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        SecurityContextHolder.clearContext();
+        return auth;
+    }
+
+    @Benchmark
+    public Object filterVerifyOnce() throws Exception {
+        MockHttpServletRequest r = uncachedRequests[next++ & (uncachedRequests.length - 1)];
+        uncachedFilter.doFilter(r, response, NOOP_CHAIN);
+        Object auth = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return auth;
+    }
+
+    @Benchmark
+    public Object filterCachedClaims() throws Exception {
+        cachedFilter.doFilter(request, response, NOOP_CHAIN);
+        Object auth = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return auth;
+    }
+
+    @Benchmark
+    public Object filterStatefulLookup() throws Exception {
+        statefulFilter.doFilter(request, response, NOOP_CHAIN);
+        Object auth = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return auth;
+    }
+
+    @Benchmark
+    public Object filterNoToken() throws Exception {
+        cachedFilter.doFilter(anonymousRequest, response, NOOP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(new String[]{JwtFilterBenchmark.class.getSimpleName(), "-prof", "gc"});
+    }
+}
@@ -0,0 +1,126 @@
+package com.scholarsync.backend.benchmark;
+
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.UserRepository;
+import com.scholarsync.backend.security.JwtService;
+import com.scholarsync.backend.security.UserVersionTable;
+import io.jsonwebtoken.Claims;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link JwtService} on its own: signing a token at login, and verifying it and reading its
+ * claims on every request, both on a claims-cache miss (full HMAC verification and JSON parse)
+ * and on a hit. {@code forgedSignature} is the cost of rejecting a token with a bad signature,
+ * which is never cached. Run through the benchmark profile, {@code -prof gc} adds bytes allocated
+ * per operation ({@code gc.alloc.rate.norm}) to each result.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    User user;
+    JwtService jwtService;
+    String token;
+    String forged;
+
+    // distinct tokens cycled through a one-entry cache, so every call verifies the signature
+    JwtService uncachedService;
+    String[] uncachedTokens;
+    int next;
+
+    @Setup
+    public void setup() {
+        // never re-read: the mocked repository knows no users
+        UserVersionTable versions = new UserVersionTable(Mockito.mock(UserRepository.class), Long.MAX_VALUE, 100000);
+        user = User.builder().id(UUID.randomUUID()).email("bench@cit.edu").microsoftId("ms-bench")
+                .role(Role.STUDENT).build();
+        versions.record(user);
+
+        jwtService = new JwtService(versions, JwtFilterBenchmark.SECRET, 1800000, 10000);
+        token = jwtService.generateToken(user);
+        jwtService.parseVerifiedClaims(token);
+        // same header and payload, last signature character changed
+        char last = token.charAt(token.length() - 1);
+        forged = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        uncachedService = new JwtService(versions, JwtFilterBenchmark.SECRET, 1800000, 1);
+        uncachedTokens = new String[1024];
+        for (int i = 0; i < uncachedTokens.length; i++) {
+            User u = User.builder().id(UUID.randomUUID()).email("bench" + i + "@cit.edu").microsoftId("ms-" + i)
+                    .role(Role.STUDENT).build();
+            versions.record(u);
+            uncachedTokens[i] = uncachedService.generateToken(u);
+        }
+    }
+
+    private String nextUncached() {
+        return uncachedTokens[next++ & (uncachedTokens.length - 1)];
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateUncached() {
+        return uncachedService.isTokenValid(nextUncached());
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return jwtService.isTokenValid(token);
+    }
+
+    @Benchmark
+    public boolean forgedSignature() {
+        return jwtService.isTokenValid(forged);
+    }
+
+    /** What the filter reads from a token, with one verification. */
+    @Benchmark
+    public void claimsUncached(Blackhole bh) {
+        readClaims(uncachedService.parseVerifiedClaims(nextUncached()), bh);
+    }
+
+    @Benchmark
+    public void claimsCached(Blackhole bh) {
+        readClaims(jwtService.parseVerifiedClaims(token), bh);
+    }
+
+    /** The per-claim accessors: each call looks the token up again. */
+    @Benchmark
+    public void extractEmailAndRole(Blackhole bh) {
+        bh.consume(jwtService.extractEmail(token));
+        bh.consume(jwtService.extractRole(token));
+    }
+
+    private static void readClaims(Claims claims, Blackhole bh) {
+        bh.consume(claims.getSubject());
+        bh.consume(claims.get("email", String.class));
+        bh.consume(claims.get("role", String.class));
+        bh.consume(claims.get(JwtService.VERSION_CLAIM, Integer.class));
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(new String[]{JwtServiceBenchmark.class.getSimpleName(), "-prof", "gc"});
+    }
+}
@@ -0,0 +1,65 @@
+package com.scholarsync.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+public class BoundedDataSourceTest {
+
+    private final DataSource pool = mock(DataSource.class);
+    private final Connection physical = mock(Connection.class);
+    private final BoundedDataSource bounded = new BoundedDataSource(pool, 2, 50);
+
+    @Test
+    void waitsForAPermitAndFailsAfterMaxWait() throws Exception {
+        when(pool.getConnection()).thenReturn(physical);
+        Connection first = bounded.getConnection();
+        Connection second = bounded.getConnection();
+        assertThat(bounded.getActive()).isEqualTo(2);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(bounded::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("2 connections in use");
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50_000_000L);
+
+        first.close();
+        first.close(); // a second close must not hand out an extra permit
+        assertThat(bounded.getActive()).isEqualTo(1);
+        Connection third = bounded.getConnection();
+        assertThat(bounded.getActive()).isEqualTo(2);
+        second.close();
+        third.close();
+        assertThat(bounded.getActive()).isZero();
+        verify(physical, times(4)).close();
+    }
+
+    @Test
+    void releasesThePermitWhenThePoolFails() throws Exception {
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThatThrownBy(bounded::getConnection).hasMessage("pool exhausted");
+        assertThat(bounded.getActive()).isZero();
+    }
+
+    @Test
+    void delegatesEverythingElse() throws Exception {
+        when(pool.getConnection()).thenReturn(physical);
+        when(physical.getAutoCommit()).thenReturn(false);
+        when(physical.prepareStatement("select 1")).thenThrow(new SQLException("boom"));
+
+        try (Connection c = bounded.getConnection()) {
+            assertThat(c.getAutoCommit()).isFalse();
+            assertThatThrownBy(() -> c.prepareStatement("select 1")).isInstanceOf(SQLException.class).hasMessage("boom");
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.scholarsync.backend.config;
+
+import static com.scholarsync.backend.config.QueryCountAssertions.assertInsertCount;
+import static com.scholarsync.backend.config.QueryCountAssertions.assertNoRepeatedStatements;
+import static com.scholarsync.backend.config.QueryCountAssertions.assertSelectCount;
+import static com.scholarsync.backend.config.QueryCountAssertions.assertStatementCount;
+import static com.scholarsync.backend.config.QueryCountAssertions.assertUpdateCount;
+import static com.scholarsync.backend.config.QueryCountAssertions.countQueries;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scholarsync.backend.controller.StudentController;
+import com.scholarsync.backend.model.GroupEntity;
+import com.scholarsync.backend.model.Student;
+import com.scholarsync.backend.repository.GroupRepository;
+import com.scholarsync.backend.repository.StudentRepository;
+import com.scholarsync.backend.service.CourseChangeSequencer;
+import com.scholarsync.backend.service.GroupImportService;
+import com.scholarsync.backend.service.RosterSnapshotCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_budget;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StudentController.class, RosterSnapshotCache.class, GroupImportService.class, CourseChangeSequencer.class,
+        QueryBudgetTest.Beans.class})
+/**
+ * Query budgets for the hot paths, counted by the statement inspector that application.properties hands to
+ * Hibernate, so a lazy collection or a merge that starts running per row fails here rather than in production.
+ * H2 stands in for MySQL; only the number and shape of statements are checked.
+ */
+public class QueryBudgetTest {
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Autowired EntityManager entityManager;
+    @Autowired GroupRepository groupRepository;
+    @Autowired StudentRepository studentRepository;
+    @Autowired StudentController studentController;
+    @Autowired GroupImportService importService;
+
+    private void seed(int groups, int membersPerGroup, int unassigned) {
+        for (int g = 0; g < groups; g++) {
+            List<String> members = new ArrayList<>();
+            for (int m = 0; m < membersPerGroup; m++) {
+                String id = "S" + g + "-" + m;
+                members.add(id);
+                entityManager.persist(new Student(id, 7L, "g" + g, "Last", "First", id + "@cit.edu", 1L));
+            }
+            entityManager.persist(new GroupEntity("g" + g, "Team " + g, 7L, members.get(0), members, null, Instant.now(), 1L));
+        }
+        for (int u = 0; u < unassigned; u++) {
+            entityManager.persist(new Student("U" + u, 7L, null, "Last", "First", "u" + u + "@cit.edu", null));
+        }
+        entityManager.flush();
+        entityManager.clear(); // what a request sees: nothing loaded yet
+    }
+
+    private static MockMultipartFile excel(String[][] rows) throws Exception {
+        try (Workbook wb = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = wb.createSheet("Sheet1");
+            int r = 0;
+            for (String[] row : rows) {
+                Row ro = sheet.createRow(r++);
+                for (int c = 0; c < row.length; c++) {
+                    ro.createCell(c).setCellValue(row[c]);
+                }
+            }
+            wb.write(out);
+            return new MockMultipartFile("file", "groups.xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray());
+        }
+    }
+
+    @Test
+    void groupsOfACourseLoadTheirMembersInOneSelect() {
+        seed(10, 3, 0);
+
+        QueryCounter queries = countQueries(() -> groupRepository.findAllByCourseId(7L)
+                .forEach(g -> g.getMemberStudentIds().size()));
+
+        assertSelectCount(queries, 1);
+    }
+
+    @Test
+    void rosterIsOneSelectAndThenServedFromTheSnapshot() {
+        seed(10, 3, 20);
+
+        QueryCounter first = countQueries(() -> studentController.listStudents(7L, null, "gzip"));
+        QueryCounter second = countQueries(() -> studentController.listStudents(7L, null, "gzip"));
+
+        assertSelectCount(first, 1);
+        assertStatementCount(second, 0);
+    }
+
+    @Test
+    void rosterSearchIsOneSelect() {
+        seed(10, 3, 20);
+
+        QueryCounter queries = countQueries(() -> studentController.listStudents(7L, "u1", null));
+
+        assertSelectCount(queries, 1);
+    }
+
+    @Test
+    void importIssuesTheSameStatementsWhateverTheNumberOfTeams() throws Exception {
+        seed(0, 0, 9);
+        MockMultipartFile file = excel(new String[][]{
+            {"TEAM CODE", "MEMBER #", "STUDENT ID"},
+            {"T1", "1", "U0"}, {"T1", "2", "U1"}, {"T1", "3", "U2"},
+            {"T2", "1", "U3"}, {"T2", "2", "U4"}, {"T2", "3", "U5"},
+            {"T3", "1", "U6"}, {"T3", "2", "U7"}, {"T3", "3", "U8"}});
+
+        QueryCounter queries = countQueries(() -> importService.importFromExcel(file, 7L));
+
+        // students by id; groups and their member lists batched; students batched
+        assertSelectCount(queries, 1);
+        assertInsertCount(queries, 2);
+        assertUpdateCount(queries, 1);
+        assertNoRepeatedStatements(queries);
+    }
+
+    @Test
+    void manualGroupIsInsertedWithoutLookingItUpFirst() {
+        seed(0, 0, 3);
+
+        QueryCounter queries = countQueries(() -> {
+            importService.createManualGroup("Team X", "U0", 7L, List.of("U0", "U1", "U2"));
+            entityManager.flush();
+        });
+
+        assertSelectCount(queries, 1);
+        assertInsertCount(queries, 2);
+        assertUpdateCount(queries, 1);
+    }
+}
@@ -0,0 +1,56 @@
+package com.scholarsync.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query budgets for tests:
+ * <pre>
+ * QueryCounter queries = QueryCountAssertions.countQueries(() -&gt; service.getCourseRoster(courseId));
+ * QueryCountAssertions.assertSelectCount(queries, 2);
+ * QueryCountAssertions.assertNoRepeatedStatements(queries);
+ * </pre>
+ * Failures list every statement shape the code issued.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    /** Runs {@code work} and returns what it issued. */
+    public static QueryCounter countQueries(Runnable work) {
+        try (QueryCounter queries = QueryCounter.start()) {
+            work.run();
+            return queries;
+        }
+    }
+
+    public static void assertSelectCount(QueryCounter queries, int expected) {
+        assertCount(queries, QueryCounter.Kind.SELECT, expected);
+    }
+
+    public static void assertInsertCount(QueryCounter queries, int expected) {
+        assertCount(queries, QueryCounter.Kind.INSERT, expected);
+    }
+
+    public static void assertUpdateCount(QueryCounter queries, int expected) {
+        assertCount(queries, QueryCounter.Kind.UPDATE, expected);
+    }
+
+    public static void assertDeleteCount(QueryCounter queries, int expected) {
+        assertCount(queries, QueryCounter.Kind.DELETE, expected);
+    }
+
+    public static void assertStatementCount(QueryCounter queries, int expected) {
+        assertThat(queries.getTotal()).as("statements, issued: %s", queries.getShapes()).isEqualTo(expected);
+    }
+
+    /** Fails if any statement shape was issued more than once, i.e. a query ran per entity. */
+    public static void assertNoRepeatedStatements(QueryCounter queries) {
+        assertThat(queries.getShapes()).as("statements issued more than once")
+                .allSatisfy((shape, times) -> assertThat(times).as(shape).isEqualTo(1));
+    }
+
+    private static void assertCount(QueryCounter queries, QueryCounter.Kind kind, int expected) {
+        assertThat(queries.count(kind)).as("%s statements, issued: %s", kind, queries.getShapes()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,109 @@
+package com.scholarsync.backend.config;
+
+import static com.scholarsync.backend.config.QueryCountAssertions.assertInsertCount;
+import static com.scholarsync.backend.config.QueryCountAssertions.assertNoRepeatedStatements;
+import static com.scholarsync.backend.config.QueryCountAssertions.assertSelectCount;
+import static com.scholarsync.backend.config.QueryCountAssertions.countQueries;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class QueryCounterTest {
+
+    private final QueryCounter.Inspector hibernate = new QueryCounter.Inspector();
+
+    // the lazy-collection pattern: one select for the groups, then one per group for its members
+    private void loadGroupsOneByOne(int groups) {
+        hibernate.inspect("select g1_0.group_id,g1_0.group_name from groups g1_0 where g1_0.course_id=?");
+        for (int i = 0; i < groups; i++) {
+            hibernate.inspect("select m1_0.group_entity_group_id,m1_0.member_student_ids "
+                    + "from group_entity_member_student_ids m1_0 where m1_0.group_entity_group_id=?");
+        }
+    }
+
+    @Test
+    void countsStatementsByKindAndShape() {
+        QueryCounter queries = countQueries(() -> {
+            loadGroupsOneByOne(3);
+            hibernate.inspect("insert into groups (group_name,group_id) values (?,?)");
+            hibernate.inspect("/* update */ update users set role=? where id in (?, ?, ?)");
+            hibernate.inspect("update users set role=? where id in (?,?)");
+        });
+
+        assertSelectCount(queries, 4);
+        assertInsertCount(queries, 1);
+        assertThat(queries.getUpdateCount()).isEqualTo(2);
+        assertThat(queries.getTotal()).isEqualTo(7);
+        assertThat(queries.getShapes()).containsEntry("update users set role=? where id in (?)", 2);
+        assertThatThrownBy(() -> assertNoRepeatedStatements(queries))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("group_entity_member_student_ids");
+    }
+
+    @Test
+    void onlyCountsWhileStartedAndNestedCountersSeeTheSameStatements() {
+        hibernate.inspect("select 1");
+        QueryCounter outer = QueryCounter.start();
+        hibernate.inspect("select * from users where email='a@cit.edu'");
+        QueryCounter inner = countQueries(() -> hibernate.inspect("select * from users where email='b@cit.edu'"));
+        assertThat(QueryCounter.current()).isSameAs(outer);
+        outer.close();
+        hibernate.inspect("select 1");
+
+        assertThat(QueryCounter.current()).isNull();
+        assertThat(inner.getTotal()).isEqualTo(1);
+        assertThat(outer.getTotal()).isEqualTo(2);
+        assertThat(outer.getShapes()).containsOnlyKeys("select * from users where email=?");
+    }
+
+    @Test
+    void recordsTheFirstLimitExceededWithTheIssuingFrames() {
+        QueryCounter queries;
+        try (QueryCounter q = QueryCounter.start(0, 2)) {
+            loadGroupsOneByOne(5);
+            queries = q;
+        }
+
+        assertThat(queries.getViolation()).startsWith("same statement 3 times (limit 2): select m1_0");
+        assertThat(queries.getViolationStack()).isNotEmpty();
+        assertThat(queries.getViolationStack()[0].getMethodName()).isEqualTo("loadGroupsOneByOne");
+    }
+
+    @Test
+    void guardWarnsAboutRequestsOverBudget() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryGuardFilter guard = new QueryGuardFilter(50, 10, registry);
+        Logger logger = (Logger) LoggerFactory.getLogger(QueryGuardFilter.class);
+        ListAppender<ILoggingEvent> logged = new ListAppender<>();
+        logged.start();
+        logger.addAppender(logged);
+        try {
+            FilterChain fine = (req, res) -> loadGroupsOneByOne(10);
+            guard.doFilter(new MockHttpServletRequest("GET", "/api/groups"), new MockHttpServletResponse(), fine);
+            FilterChain nPlusOne = (req, res) -> {
+                loadGroupsOneByOne(11);
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/courses/{courseId}/groups");
+            };
+            guard.doFilter(new MockHttpServletRequest("GET", "/api/courses/7/groups"), new MockHttpServletResponse(), nPlusOne);
+        } finally {
+            logger.detachAppender(logged);
+        }
+
+        assertThat(logged.list).hasSize(1);
+        assertThat(logged.list.get(0).getFormattedMessage())
+                .contains("/api/courses/7/groups", "same statement 11 times", "loadGroupsOneByOne");
+        assertThat(registry.get("db.query.guard.violations").tag("uri", "/api/courses/{courseId}/groups")
+                .counter().count()).isEqualTo(1);
+        assertThat(QueryCounter.current()).isNull();
+    }
+}
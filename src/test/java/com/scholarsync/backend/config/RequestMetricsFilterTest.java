@@ -0,0 +1,104 @@
+package com.scholarsync.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.scholarsync.backend.dto.SlowRequest;
+import com.scholarsync.backend.service.SlowRequestLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class RequestMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SlowRequestLog slowRequests = new SlowRequestLog(50, 3, 3600000);
+    private final RequestMetricsFilter filter = new RequestMetricsFilter(registry, slowRequests);
+
+    // what Hibernate does for each statement a request runs
+    private static void runStatements(int n, long eachMillis) throws InterruptedException {
+        RequestDbStats.Listener session = new RequestDbStats.Listener();
+        session.jdbcConnectionAcquisitionStart();
+        session.jdbcConnectionAcquisitionEnd();
+        for (int i = 0; i < n; i++) {
+            session.jdbcExecuteStatementStart();
+            Thread.sleep(eachMillis);
+            session.jdbcExecuteStatementEnd();
+        }
+    }
+
+    private void request(String path, String route, int statements, long eachMillis) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        FilterChain chain = (req, res) -> {
+            try {
+                runStatements(statements, eachMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, route);
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+
+    @Test
+    void recordsDbWorkPerRouteAndSamplesSlowRequests() throws Exception {
+        request("/api/students/S1", "/api/students/{studentId}", 2, 0);
+        request("/api/students", "/api/students", 12, 6);
+
+        assertThat(registry.get("http.server.requests.db.statements").tag("uri", "/api/students/{studentId}")
+                .summary().totalAmount()).isEqualTo(2);
+        assertThat(registry.get("http.server.requests.db.statements").tag("uri", "/api/students")
+                .summary().totalAmount()).isEqualTo(12);
+
+        List<SlowRequest> slow = slowRequests.snapshot();
+        assertThat(slow).hasSize(1);
+        SlowRequest s = slow.get(0);
+        assertThat(s.getRoute()).isEqualTo("/api/students");
+        assertThat(s.getPath()).isEqualTo("/api/students");
+        assertThat(s.getDbStatements()).isEqualTo(12);
+        assertThat(s.getDbTimeMs()).isGreaterThanOrEqualTo(60).isLessThanOrEqualTo(s.getDurationMs());
+        // nothing left bound to the thread after the request
+        assertThat(RequestDbStats.current()).isNull();
+    }
+
+    @Test
+    void unmatchedRequestsShareOneRoute() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(404);
+        filter.doFilter(new MockHttpServletRequest("GET", "/no/such/path/123"), response, (req, res) -> { });
+
+        assertThat(registry.get("http.server.requests.db.statements").tag("uri", "NOT_FOUND").summary().count()).isEqualTo(1);
+    }
+
+    private static SlowRequest slow(String route, long durationMs, Instant at) {
+        return new SlowRequest(at, "GET", route, route, 200, durationMs, 0, 0, 0);
+    }
+
+    @Test
+    void slowLogKeepsTheSlowestEntries() {
+        slowRequests.record(slow("/outlier", 5000, Instant.now()));
+        slowRequests.record(slow("/second", 900, Instant.now()));
+        // a burst just over the threshold displaces only the fastest retained entries
+        for (int i = 1; i <= 10; i++) {
+            slowRequests.record(slow("/burst" + i, 50 + i, Instant.now()));
+        }
+        assertThat(slowRequests.snapshot()).extracting(SlowRequest::getRoute).containsExactly("/outlier", "/second", "/burst10");
+        assertThat(slowRequests.isSlow(49)).isFalse();
+        assertThat(slowRequests.isSlow(50)).isTrue();
+    }
+
+    @Test
+    void slowLogForgetsEntriesOlderThanItsWindow() {
+        slowRequests.record(slow("/last-week", 9000, Instant.now().minus(Duration.ofDays(7))));
+        slowRequests.record(slow("/a", 100, Instant.now()));
+        slowRequests.record(slow("/b", 200, Instant.now()));
+        slowRequests.record(slow("/c", 60, Instant.now())); // full: the expired entry makes room
+
+        assertThat(slowRequests.snapshot()).extracting(SlowRequest::getRoute).containsExactly("/b", "/a", "/c");
+    }
+}
@@ -0,0 +1,33 @@
+package com.scholarsync.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+public class ThreadingConfigTest {
+
+    @Test
+    void probeReportsPlatformThreads() {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            assertThat(ThreadingConfig.runsOnVirtualThreads(pool)).isFalse();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void probeReportsVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need JDK 21");
+        // Executors.newVirtualThreadPerTaskExecutor() is JDK 21 API and the baseline compiles for 17
+        ExecutorService pool = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        try {
+            assertThat(ThreadingConfig.runsOnVirtualThreads(pool)).isTrue();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.scholarsync.backend.loadtest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scholarsync.backend.ScholarsyncApplication;
+import com.scholarsync.backend.dto.GroupCreateRequest;
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.UserRepository;
+import com.scholarsync.backend.security.JwtService;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * End-to-end API load test: boots the whole application on a random port, seeds it with
+ * {@link SyntheticData} (100k students by default) and drives a request mix over real HTTP from
+ * {@code clients} closed-loop clients:
+ * <ul>
+ *   <li>{@code typeahead}: {@code GET /api/students?courseId=&q=} with name and ID prefixes</li>
+ *   <li>{@code student}: {@code GET /api/students/{id}?courseId=}</li>
+ *   <li>{@code roster}: {@code GET /api/students?courseId=}, the whole course, gzipped (not in the default mix)</li>
+ *   <li>{@code manual-group}: {@code POST /api/groups/manual} with {@code group.size} ungrouped students</li>
+ *   <li>{@code import}: {@code POST /api/groups/import}, a generated workbook of {@code import.teams} teams</li>
+ * </ul>
+ * Requests carry JWTs minted by {@link JwtService} for seeded teacher accounts, so no OAuth is involved.
+ * The database is in-memory H2 ({@code -Ddb=h2}, the default) or the {@code mysql} profile's database
+ * ({@code -Ddb=mysql}, which must not contain students yet). {@code -Dthreads=virtual} (JDK 21+) runs
+ * the server on virtual threads with database concurrency bounded by {@code db.max-concurrent}
+ * (default 10) instead of the default platform-thread pool; run both to compare the two modes, and
+ * platform mode with the same {@code -Ddb.max-concurrent} to tell the two effects apart.
+ *
+ * After {@code warmup.s} seconds the next {@code duration.s} seconds are measured and reported per
+ * operation (throughput, p50/p99/max, error rate) next to the committed baseline
+ * ({@code src/test/resources/loadtest/api-baseline.properties}). Anything worse than the baseline by
+ * more than {@code baseline.tolerance} is flagged; {@code -Dfail-on-regression=true} makes that a
+ * non-zero exit and {@code -Dupdate-baseline=true} records this run as the new baseline.
+ *
+ * Run: ./mvnw -Ploadtest -DskipTests test -Dloadtest.main=com.scholarsync.backend.loadtest.ApiLoadHarness -Dloadtest.args=""
+ */
+public class ApiLoadHarness {
+
+    static final String DB = System.getProperty("db", "h2");
+    static final String THREADS = System.getProperty("threads", "platform");
+    // bounded by default in virtual mode only; set it to bound platform mode too, so only the threads differ
+    static final Integer DB_MAX_CONCURRENT = Integer.getInteger("db.max-concurrent", "virtual".equals(THREADS) ? 10 : null);
+    static final int COURSES = Integer.getInteger("courses", 50);
+    static final int STUDENTS_PER_COURSE = Integer.getInteger("students.per-course", 2000);
+    static final int GROUP_SIZE = Integer.getInteger("group.size", 4);
+    static final int IMPORT_TEAMS = Integer.getInteger("import.teams", 10);
+    static final long SEED = Long.getLong("seed", 42);
+    static final int TEACHERS = Integer.getInteger("teachers", 20);
+    static final int CLIENTS = Integer.getInteger("clients", 32);
+    static final int WARMUP_SECONDS = Integer.getInteger("warmup.s", 10);
+    static final int DURATION_SECONDS = Integer.getInteger("duration.s", 30);
+    static final String MIX = System.getProperty("mix", "typeahead=60,student=30,manual-group=8,import=2");
+    static final double TOLERANCE = Double.parseDouble(System.getProperty("baseline.tolerance", "0.25"));
+    // differences below this are noise on any machine, whatever the ratio
+    static final double NOISE_FLOOR_MILLIS = 2.0;
+
+    static final String BASELINE_RESOURCE = "/loadtest/api-baseline.properties";
+    static final Path BASELINE_SOURCE = Path.of("src/test/resources/loadtest/api-baseline.properties");
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /** Builds the next request of one kind, or returns null when the data for it has run out. */
+    interface Operation {
+        HttpRequest next(Random random) throws IOException;
+    }
+
+    static final class Stats {
+        final ConcurrentLinkedQueue<Long> micros = new ConcurrentLinkedQueue<>();
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger exhausted = new AtomicInteger();
+    }
+
+    static final class Summary {
+        final String name;
+        final int requests;
+        final double throughput;
+        final double p50;
+        final double p99;
+        final double max;
+        final double errorRate;
+
+        Summary(String name, Stats stats, double seconds) {
+            long[] sorted = LoginStormHarness.toArray(stats.micros);
+            this.name = name;
+            this.requests = sorted.length;
+            this.throughput = sorted.length / seconds;
+            this.p50 = LoginStormHarness.pct(sorted, 50) / 1000.0;
+            this.p99 = LoginStormHarness.pct(sorted, 99) / 1000.0;
+            this.max = LoginStormHarness.pct(sorted, 100) / 1000.0;
+            this.errorRate = sorted.length == 0 ? 0 : (double) stats.errors.get() / sorted.length;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        System.setProperty("spring.devtools.restart.enabled", "false"); // devtools is on the test classpath
+        Map<String, Integer> mix = parseMix(MIX);
+        String config = String.format(Locale.ROOT, "threads=%s%s db=%s courses=%d students.per-course=%d clients=%d duration.s=%d mix=%s cpus=%d",
+                THREADS, DB_MAX_CONCURRENT == null ? "" : " db.max-concurrent=" + DB_MAX_CONCURRENT, DB, COURSES,
+                STUDENTS_PER_COURSE, CLIENTS, DURATION_SECONDS, MIX, Runtime.getRuntime().availableProcessors());
+
+        ConfigurableApplicationContext app = SpringApplication.run(ScholarsyncApplication.class, applicationArgs());
+        try {
+            int port = ((ServletWebServerApplicationContext) app).getWebServer().getPort();
+            String base = "http://localhost:" + port;
+
+            SyntheticData data = new SyntheticData(COURSES, STUDENTS_PER_COURSE, GROUP_SIZE, 0.5, SEED);
+            long seedStart = System.nanoTime();
+            data.seed(app.getBean(JdbcTemplate.class));
+            System.out.printf("Seeded %d students in %d courses in %d ms%n", data.totalStudents(), COURSES,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            List<String> tokens = teacherTokens(app);
+            String professorKey = app.getEnvironment().getProperty("app.professor.key", "");
+            Map<String, Operation> operations = operations(base, data, tokens, professorKey);
+            for (String name : mix.keySet()) {
+                if (!operations.containsKey(name)) {
+                    throw new IllegalArgumentException("Unknown operation in mix: " + name + ", known: " + operations.keySet());
+                }
+            }
+
+            System.out.printf("API load: %s, %d s warm-up%n%n", config, WARMUP_SECONDS);
+            Map<String, Stats> stats = run(operations, mix);
+            List<Summary> summaries = new ArrayList<>();
+            stats.forEach((name, s) -> summaries.add(new Summary(name, s, DURATION_SECONDS)));
+
+            Properties baseline = loadBaseline();
+            boolean regressed = report(summaries, stats, baseline, config);
+            if (Boolean.getBoolean("update-baseline")) {
+                writeBaseline(summaries, config);
+                System.out.println("\nBaseline written to " + BASELINE_SOURCE);
+            }
+            if (regressed && Boolean.getBoolean("fail-on-regression")) {
+                System.exit(1);
+            }
+        } finally {
+            app.close();
+        }
+        System.exit(0);
+    }
+
+    static String[] applicationArgs() {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--jwt.secret=" + LoginStormHarness.SECRET));
+        if ("h2".equals(DB)) {
+            args.add("--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+            args.add("--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+        } else if ("mysql".equals(DB)) {
+            args.add("--spring.profiles.active=mysql");
+        } else {
+            throw new IllegalArgumentException("db must be h2 or mysql: " + DB);
+        }
+        if ("virtual".equals(THREADS)) {
+            if (Runtime.version().feature() < 21) {
+                throw new IllegalStateException("-Dthreads=virtual needs JDK 21+, running on " + Runtime.version());
+            }
+            args.add("--spring.threads.virtual.enabled=true");
+        } else if (!"platform".equals(THREADS)) {
+            throw new IllegalArgumentException("threads must be platform or virtual: " + THREADS);
+        }
+        if (DB_MAX_CONCURRENT != null) {
+            args.add("--app.db.max-concurrent=" + DB_MAX_CONCURRENT);
+        }
+        return args.toArray(String[]::new);
+    }
+
+    static List<String> teacherTokens(ConfigurableApplicationContext app) {
+        UserRepository users = app.getBean(UserRepository.class);
+        JwtService jwtService = app.getBean(JwtService.class);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < TEACHERS; i++) {
+            User teacher = users.save(User.builder()
+                    .email("loadtest.teacher" + i + "@cit.edu")
+                    .microsoftId("loadtest-teacher-" + i)
+                    .displayName("Load Teacher " + i)
+                    .institutionalId(String.valueOf(9000 + i))
+                    .role(Role.TEACHER)
+                    .build());
+            tokens.add(jwtService.generateToken(teacher));
+        }
+        return tokens;
+    }
+
+    static Map<String, Operation> operations(String base, SyntheticData data, List<String> tokens, String professorKey) {
+        AtomicInteger sequence = new AtomicInteger();
+        Map<String, Operation> operations = new LinkedHashMap<>();
+        operations.put("typeahead", random -> {
+            long course = data.courseId(random.nextInt(data.courses));
+            String q = URLEncoder.encode(SyntheticData.typeaheadQuery(random), StandardCharsets.UTF_8);
+            return authorized(base + "/api/students?courseId=" + course + "&q=" + q, tokens, random).GET().build();
+        });
+        operations.put("student", random -> {
+            long course = data.courseId(random.nextInt(data.courses));
+            List<String> ids = data.studentsByCourse.get(course);
+            String id = ids.get(random.nextInt(ids.size()));
+            return authorized(base + "/api/students/" + id + "?courseId=" + course, tokens, random).GET().build();
+        });
+        operations.put("roster", random -> {
+            long course = data.courseId(random.nextInt(data.courses));
+            return authorized(base + "/api/students?courseId=" + course, tokens, random)
+                    .header("Accept-Encoding", "gzip").GET().build();
+        });
+        operations.put("manual-group", random -> {
+            long course = data.courseId(random.nextInt(data.courses));
+            List<String> members = data.takeUngrouped(course, data.groupSize);
+            if (members == null) {
+                return null;
+            }
+            GroupCreateRequest body = new GroupCreateRequest("Load group " + sequence.incrementAndGet(), members.get(0), course, members);
+            return authorized(base + "/api/groups/manual", tokens, random)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body)))
+                    .build();
+        });
+        operations.put("import", random -> {
+            long course = data.courseId(random.nextInt(data.courses));
+            List<String> students = data.takeUngrouped(course, IMPORT_TEAMS * data.groupSize);
+            if (students == null) {
+                return null;
+            }
+            String boundary = "loadtest" + sequence.incrementAndGet();
+            byte[] body = multipart(boundary, course, workbook("L" + sequence.get(), students, data.groupSize));
+            return authorized(base + "/api/groups/import", tokens, random)
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .header("X-Professor-Key", professorKey)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        });
+        return operations;
+    }
+
+    static HttpRequest.Builder authorized(String uri, List<String> tokens, Random random) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())));
+    }
+
+    static Map<String, Stats> run(Map<String, Operation> operations, Map<String, Integer> mix) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        mix.keySet().forEach(name -> stats.put(name, new Stats()));
+        List<String> weighted = new ArrayList<>();
+        mix.forEach((name, weight) -> {
+            for (int i = 0; i < weight; i++) weighted.add(name);
+        });
+
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        List<Thread> clients = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            Random random = new Random(SEED + c);
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    String name = weighted.get(random.nextInt(weighted.size()));
+                    Stats s = stats.get(name);
+                    long start = System.nanoTime();
+                    boolean error;
+                    try {
+                        HttpRequest request = operations.get(name).next(random);
+                        if (request == null) {
+                            s.exhausted.incrementAndGet();
+                            continue;
+                        }
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        error = response.statusCode() >= 400;
+                    } catch (IOException e) {
+                        error = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long finished = System.nanoTime();
+                    if (start >= measureFrom && finished <= end) {
+                        s.micros.add(TimeUnit.NANOSECONDS.toMicros(finished - start));
+                        if (error) s.errors.incrementAndGet();
+                    }
+                }
+            }, "load-client-" + c);
+            clients.add(thread);
+            thread.start();
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+        return stats;
+    }
+
+    /** Prints the run next to the baseline; true if anything regressed beyond the tolerance. */
+    static boolean report(List<Summary> summaries, Map<String, Stats> stats, Properties baseline, String config) {
+        System.out.printf("%-13s %8s %9s %9s %9s %9s %7s%n", "operation", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        int requests = 0;
+        for (Summary s : summaries) {
+            System.out.printf(Locale.ROOT, "%-13s %8d %9.1f %9.1f %9.1f %9.1f %6.2f%%%n",
+                    s.name, s.requests, s.throughput, s.p50, s.p99, s.max, s.errorRate * 100);
+            requests += s.requests;
+            int exhausted = stats.get(s.name).exhausted.get();
+            if (exhausted > 0) {
+                System.out.printf("  (%d skipped: no ungrouped students left in the chosen course)%n", exhausted);
+            }
+        }
+        System.out.printf(Locale.ROOT, "%-13s %8d %9.1f%n", "total", requests, requests / (double) DURATION_SECONDS);
+
+        if (baseline.isEmpty()) {
+            System.out.println("\nNo baseline recorded; run with -Dupdate-baseline=true to record one.");
+            return false;
+        }
+        System.out.println("\nAgainst baseline (tolerance " + Math.round(TOLERANCE * 100) + "%):");
+        if (!config.equals(baseline.getProperty("config"))) {
+            System.out.println("  note: baseline was recorded with " + baseline.getProperty("config"));
+        }
+        boolean regressed = false;
+        for (Summary s : summaries) {
+            if (baseline.getProperty(s.name + ".p99") == null || s.requests == 0) {
+                System.out.printf("  %-13s %s%n", s.name, s.requests == 0 ? "no requests measured" : "no baseline");
+                continue;
+            }
+            List<String> worse = new ArrayList<>();
+            double baseThroughput = number(baseline, s.name + ".throughput");
+            double baseP50 = number(baseline, s.name + ".p50");
+            double baseP99 = number(baseline, s.name + ".p99");
+            double baseErrors = number(baseline, s.name + ".error-rate");
+            if (s.throughput < baseThroughput * (1 - TOLERANCE)) worse.add("throughput");
+            if (slower(s.p50, baseP50)) worse.add("p50");
+            if (slower(s.p99, baseP99)) worse.add("p99");
+            if (s.errorRate > baseErrors + 0.01) worse.add("errors");
+            System.out.printf(Locale.ROOT, "  %-13s req/s %+6.1f%%  p50 %+6.1f%%  p99 %+6.1f%%  errors %+.2fpp  %s%n",
+                    s.name, change(s.throughput, baseThroughput), change(s.p50, baseP50), change(s.p99, baseP99),
+                    (s.errorRate - baseErrors) * 100, worse.isEmpty() ? "ok" : "REGRESSION " + worse);
+            regressed |= !worse.isEmpty();
+        }
+        return regressed;
+    }
+
+    private static boolean slower(double millis, double baselineMillis) {
+        return millis > baselineMillis * (1 + TOLERANCE) && millis - baselineMillis > NOISE_FLOOR_MILLIS;
+    }
+
+    private static double change(double value, double baseline) {
+        return baseline == 0 ? 0 : (value - baseline) / baseline * 100;
+    }
+
+    private static double number(Properties properties, String key) {
+        return Double.parseDouble(properties.getProperty(key, "0"));
+    }
+
+    static Properties loadBaseline() throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = ApiLoadHarness.class.getResourceAsStream(BASELINE_RESOURCE)) {
+            if (in != null) {
+                baseline.load(in);
+            }
+        }
+        return baseline;
+    }
+
+    // written by hand to keep a stable order and no timestamp, so baseline updates diff cleanly
+    static void writeBaseline(List<Summary> summaries, String config) throws IOException {
+        StringBuilder out = new StringBuilder()
+                .append("# API load-test baseline, written by ApiLoadHarness -Dupdate-baseline=true.\n")
+                .append("# Latencies in ms. Only comparable between runs with the same config on similar hardware.\n")
+                .append("config=").append(config).append('\n');
+        for (Summary s : summaries) {
+            out.append(String.format(Locale.ROOT, "%s.throughput=%.1f%n%s.p50=%.1f%n%s.p99=%.1f%n%s.error-rate=%.4f%n",
+                    s.name, s.throughput, s.name, s.p50, s.name, s.p99, s.name, s.errorRate));
+        }
+        Files.createDirectories(BASELINE_SOURCE.getParent());
+        Files.writeString(BASELINE_SOURCE, out);
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                weights.put(kv[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Empty mix: " + mix);
+        }
+        return weights;
+    }
+
+    /** The import spreadsheet layout: TEAM CODE, MEMBER #, STUDENT ID, LASTNAME, FIRSTNAME, EMAIL. */
+    static byte[] workbook(String prefix, List<String> students, int groupSize) throws IOException {
+        try (Workbook wb = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = wb.createSheet("Sheet1");
+            String[] header = {"TEAM CODE", "MEMBER #", "STUDENT ID", "LASTNAME", "FIRSTNAME", "EMAIL"};
+            Row first = sheet.createRow(0);
+            for (int c = 0; c < header.length; c++) {
+                first.createCell(c).setCellValue(header[c]);
+            }
+            for (int i = 0; i < students.size(); i++) {
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(prefix + "-TEAM-" + (i / groupSize + 1));
+                row.createCell(1).setCellValue(String.valueOf(i % groupSize + 1));
+                row.createCell(2).setCellValue(students.get(i));
+            }
+            wb.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    static byte[] multipart(String boundary, long courseId, byte[] xlsx) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String courseField = "--" + boundary + "\r\nContent-Disposition: form-data; name=\"courseId\"\r\n\r\n" + courseId + "\r\n";
+        String fileHeader = "--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"groups.xlsx\"\r\n"
+                + "Content-Type: application/vnd.openxmlformats-officedocument.spreadsheetml.sheet\r\n\r\n";
+        body.write(courseField.getBytes(StandardCharsets.UTF_8));
+        body.write(fileHeader.getBytes(StandardCharsets.UTF_8));
+        body.write(xlsx);
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+}
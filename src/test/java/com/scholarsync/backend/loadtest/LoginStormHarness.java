@@ -0,0 +1,318 @@
+package com.scholarsync.backend.loadtest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.scholarsync.backend.model.RefreshToken;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.RefreshTokenRepository;
+import com.scholarsync.backend.repository.RevokedTokenRepository;
+import com.scholarsync.backend.repository.UserRepository;
+import com.scholarsync.backend.security.JwtService;
+import com.scholarsync.backend.security.LoginAdmissionFilter;
+import com.scholarsync.backend.security.LoginHandoffService;
+import com.scholarsync.backend.security.OAuth2LoginSuccessHandler;
+import com.scholarsync.backend.security.RefreshTokenService;
+import com.scholarsync.backend.security.TokenRevocationService;
+import com.scholarsync.backend.security.UserVersionTable;
+import com.scholarsync.backend.service.LastLoginWriteBuffer;
+import com.scholarsync.backend.service.MicrosoftGraphService;
+import com.scholarsync.backend.service.RoleDeterminationService;
+import com.scholarsync.backend.service.RoleRuleTableTest;
+import com.scholarsync.backend.service.StubGraphServer;
+import com.scholarsync.backend.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.FilterChain;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+/**
+ * Login-storm harness: N students hit the OAuth callback at once, against the real success handler,
+ * Graph client, user upsert and token issuance, with stubs for everything outside the process:
+ * <ul>
+ *   <li>identity provider: the code-for-token exchange is a fixed sleep ({@code idp.ms})</li>
+ *   <li>Microsoft Graph: {@link StubGraphServer} returning a distinct profile per access token ({@code graph.ms})</li>
+ *   <li>database: a 10-connection pool (HikariCP's default) where each statement holds a connection for {@code db.ms}</li>
+ *   <li>Tomcat: a 200-thread request pool</li>
+ * </ul>
+ * While the storm runs, a steady trickle of ordinary API requests (one DB statement each) measures
+ * how much the rest of the API suffers. Rejected callbacks retry after {@code Retry-After}, as the
+ * 503 page does in a browser.
+ *
+ * The storm is run twice, without and with {@link LoginAdmissionFilter}, and both are reported.
+ *
+ * Run: ./mvnw -Ploadtest -DskipTests test [-Dloadtest.args="-Dlogins=2000"]
+ */
+public class LoginStormHarness {
+
+    static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    static final int LOGINS = Integer.getInteger("logins", 2000);
+    static final int TOMCAT_THREADS = Integer.getInteger("tomcat.threads", 200);
+    static final int DB_POOL = Integer.getInteger("db.pool", 10);
+    static final long DB_MILLIS = Long.getLong("db.ms", 3);
+    static final long IDP_MILLIS = Long.getLong("idp.ms", 60);
+    static final long GRAPH_MILLIS = Long.getLong("graph.ms", 40);
+    static final long API_INTERVAL_MILLIS = Long.getLong("api.interval.ms", 20);
+
+    /** Connection pool stand-in: every statement holds one of {@code DB_POOL} connections for {@code DB_MILLIS}. */
+    static final class SimulatedDatabase {
+        private final Semaphore connections = new Semaphore(DB_POOL, true);
+
+        <T> T execute(Supplier<T> statement) {
+            connections.acquireUninterruptibly();
+            try {
+                sleep(DB_MILLIS);
+                return statement.get();
+            } finally {
+                connections.release();
+            }
+        }
+    }
+
+    static final class Result {
+        final String name;
+        final long[] admittedMillis;
+        final long[] signInMillis;
+        final long[] apiMillis;
+        final int attempts;
+        final int rejected;
+        final long wallMillis;
+
+        Result(String name, long[] admittedMillis, long[] signInMillis, long[] apiMillis, int attempts, int rejected, long wallMillis) {
+            this.name = name;
+            this.admittedMillis = admittedMillis;
+            this.signInMillis = signInMillis;
+            this.apiMillis = apiMillis;
+            this.attempts = attempts;
+            this.rejected = rejected;
+            this.wallMillis = wallMillis;
+        }
+
+        void print() {
+            System.out.printf("%-22s logins=%d attempts=%d rejected=%d wall=%dms%n", name, signInMillis.length, attempts, rejected, wallMillis);
+            System.out.printf("  callback (admitted)  p50=%5d  p99=%5d  max=%5d ms%n",
+                    pct(admittedMillis, 50), pct(admittedMillis, 99), pct(admittedMillis, 100));
+            System.out.printf("  time to sign in      p50=%5d  p99=%5d  max=%5d ms%n",
+                    pct(signInMillis, 50), pct(signInMillis, 99), pct(signInMillis, 100));
+            System.out.printf("  other API requests   p50=%5d  p99=%5d  max=%5d ms  (n=%d)%n",
+                    pct(apiMillis, 50), pct(apiMillis, 99), pct(apiMillis, 100), apiMillis.length);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+        try (StubGraphServer graph = new StubGraphServer()) {
+            graph.delay(GRAPH_MILLIS).respondWith(token -> StubGraphServer.profileJson(
+                    "oid-" + token, "Student " + token, token + "@cit.edu", String.format("22-%04d-%03d", Integer.parseInt(token) % 10000, 100)));
+
+            System.out.printf("Login storm: %d concurrent callbacks, %d request threads, DB pool %d x %dms, IdP %dms, Graph %dms%n%n",
+                    LOGINS, TOMCAT_THREADS, DB_POOL, DB_MILLIS, IDP_MILLIS, GRAPH_MILLIS);
+            run("no admission control", graph, new LoginAdmissionFilter(Integer.MAX_VALUE, 0, 0, 2, new SimpleMeterRegistry())).print();
+            System.out.println();
+            run("admission control", graph, new LoginAdmissionFilter(
+                    Integer.getInteger("admission.max-concurrent", 32),
+                    Integer.getInteger("admission.max-queue", 64),
+                    Long.getLong("admission.max-wait-ms", 2000),
+                    Integer.getInteger("admission.retry-after-seconds", 2),
+                    new SimpleMeterRegistry())).print();
+        }
+        System.exit(0);
+    }
+
+    static Result run(String name, StubGraphServer graph, LoginAdmissionFilter admission) throws Exception {
+        SimulatedDatabase db = new SimulatedDatabase();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OAuth2LoginSuccessHandler handler = newHandler(graph, db, registry);
+        ExecutorService tomcat = Executors.newFixedThreadPool(TOMCAT_THREADS);
+
+        ConcurrentLinkedQueue<Long> admitted = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> apiLatencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // steady background API traffic sharing the request threads and DB pool
+        AtomicInteger stormRunning = new AtomicInteger(1);
+        Thread apiTraffic = new Thread(() -> {
+            while (stormRunning.get() == 1) {
+                long start = System.nanoTime();
+                tomcat.submit(() -> {
+                    db.execute(() -> null);
+                    apiLatencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                });
+                sleep(API_INTERVAL_MILLIS);
+            }
+        });
+
+        long stormStart = System.nanoTime();
+        apiTraffic.start();
+        List<CompletableFuture<Long>> logins = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            String user = String.valueOf(i);
+            long start = System.nanoTime();
+            logins.add(attempt(user, tomcat, admission, handler, admitted, attempts, rejected)
+                    .thenApply(v -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
+        long[] signIn = logins.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+        long wall = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stormStart);
+        stormRunning.set(0);
+        apiTraffic.join();
+        tomcat.shutdown();
+        tomcat.awaitTermination(30, TimeUnit.SECONDS);
+
+        return new Result(name, toArray(admitted), signIn, toArray(apiLatencies), attempts.get(), rejected.get(), wall);
+    }
+
+    /** One browser: hits the callback, and on 503 comes back after Retry-After until signed in. */
+    static CompletableFuture<Void> attempt(String user, ExecutorService tomcat, LoginAdmissionFilter admission,
+                                           OAuth2LoginSuccessHandler handler, ConcurrentLinkedQueue<Long> admitted,
+                                           AtomicInteger attempts, AtomicInteger rejected) {
+        long start = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            attempts.incrementAndGet();
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/login/oauth2/code/microsoft");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            FilterChain callback = (req, res) -> {
+                sleep(IDP_MILLIS); // code-for-token exchange with the identity provider
+                handler.onAuthenticationSuccess(request, response, authentication(user));
+            };
+            try {
+                admission.doFilter(request, response, callback);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return response;
+        }, tomcat).thenCompose(response -> {
+            if (response.getStatus() == 503) {
+                rejected.incrementAndGet();
+                long retryAfter = Long.parseLong(response.getHeader("Retry-After"));
+                return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(retryAfter, TimeUnit.SECONDS))
+                        .thenCompose(v -> attempt(user, tomcat, admission, handler, admitted, attempts, rejected));
+            }
+            if (response.getStatus() != 302) {
+                throw new IllegalStateException("Login " + user + " failed: " + response.getStatus() + " " + contentOf(response));
+            }
+            admitted.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    static OAuth2LoginSuccessHandler newHandler(StubGraphServer graph, SimulatedDatabase db, SimpleMeterRegistry registry) {
+        Map<String, User> users = new ConcurrentHashMap<>();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByMicrosoftId(anyString())).thenAnswer(inv ->
+                db.execute(() -> Optional.ofNullable(users.get(inv.<String>getArgument(0)))));
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> db.execute(() -> {
+            User u = inv.getArgument(0);
+            if (u.getId() == null) {
+                u.setId(UUID.randomUUID());
+            }
+            users.put(u.getMicrosoftId(), u);
+            return u;
+        }));
+        RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> db.execute(() -> inv.getArgument(0)));
+
+        UserVersionTable versions = new UserVersionTable(userRepository, 30000, 100000);
+        UserService userService = new UserService(userRepository, new RoleDeterminationService(RoleRuleTableTest.stockRules()), versions,
+                new LastLoginWriteBuffer(userRepository), mock(EntityManager.class));
+        MicrosoftGraphService graphService = new MicrosoftGraphService(graph.baseUrl(), 2000, 3000, 50, 100, 2500,
+                3600000, 86400000, 10000, 5, 30000, 20, registry);
+
+        ClientRegistration registration = ClientRegistration.withRegistrationId("microsoft")
+                .clientId("load-test").authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .authorizationUri("http://idp.invalid/authorize").tokenUri("http://idp.invalid/token").build();
+        OAuth2AuthorizedClientService authorizedClients = new OAuth2AuthorizedClientService() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(String clientRegistrationId, String principalName) {
+                OAuth2AccessToken token = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                        principalName.substring(0, principalName.indexOf('@')), Instant.now(), Instant.now().plusSeconds(3600));
+                return (T) new OAuth2AuthorizedClient(registration, principalName, token);
+            }
+
+            @Override
+            public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
+            }
+
+            @Override
+            public void removeAuthorizedClient(String clientRegistrationId, String principalName) {
+            }
+        };
+
+        return new OAuth2LoginSuccessHandler(authorizedClients, graphService, userService,
+                new JwtService(versions, SECRET, 1800000, 10000),
+                new RefreshTokenService(refreshTokenRepository, 86400000),
+                new LoginHandoffService(new TokenRevocationService(mock(RevokedTokenRepository.class), 1000, 0.01), SECRET, 60000),
+                ObservationRegistry.NOOP);
+    }
+
+    static OAuth2AuthenticationToken authentication(String user) {
+        OAuth2User principal = new DefaultOAuth2User(List.of(new SimpleGrantedAuthority("OIDC_USER")),
+                Map.of("oid", "oid-" + user, "email", user + "@cit.edu", "name", "Student " + user), "email");
+        return new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "microsoft");
+    }
+
+    static long pct(long[] sorted, int percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    static long[] toArray(ConcurrentLinkedQueue<Long> values) {
+        long[] a = values.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(a);
+        return a;
+    }
+
+    static String contentOf(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.scholarsync.backend.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup benchmark: launches the packaged application {@code runs} times per mode as a separate JVM,
+ * as a new pod would, and measures from process start to
+ * <ul>
+ *   <li>{@code ready}: the first 200 from {@code GET /actuator/health} on the management port, which is
+ *   what the readiness probe waits for (it includes the database check)</li>
+ *   <li>{@code first-request}: the first successful API response right after that,
+ *   {@code POST /api/public/test/role}, through the security filters, MVC and Jackson</li>
+ * </ul>
+ * Modes: {@code jar} (plain {@code java -jar}), {@code aot} (Spring AOT initializers) and {@code aot-cds}
+ * (AOT plus the AppCDS archive). All three start the extracted jar that {@code -Pfaststart} builds into
+ * {@code target/faststart}, so build that first. The database is in-memory H2 ({@code -Ddb=h2}) or the
+ * {@code mysql} profile's database ({@code -Ddb=mysql}).
+ *
+ * Medians per mode are reported next to {@code src/test/resources/loadtest/startup-baseline.properties};
+ * {@code -Dupdate-baseline=true} and {@code -Dfail-on-regression=true} work as in {@link ApiLoadHarness}.
+ *
+ * Run: ./mvnw -Pfaststart -DskipTests package, then
+ * ./mvnw -Ploadtest -DskipTests test -Dloadtest.main=com.scholarsync.backend.loadtest.StartupHarness -Dloadtest.args=""
+ */
+public class StartupHarness {
+
+    static final Path DIR = Path.of(System.getProperty("faststart.dir", "target/faststart"));
+    static final String MODES = System.getProperty("modes", "jar,aot,aot-cds");
+    static final String DB = System.getProperty("db", "h2");
+    static final int RUNS = Integer.getInteger("runs", 5);
+    static final int TIMEOUT_SECONDS = Integer.getInteger("timeout.s", 180);
+    static final double TOLERANCE = Double.parseDouble(System.getProperty("baseline.tolerance", "0.25"));
+    // JVM start-up jitter; differences below this are not reported as regressions
+    static final long NOISE_FLOOR_MILLIS = 200;
+
+    static final String BASELINE_RESOURCE = "/loadtest/startup-baseline.properties";
+    static final Path BASELINE_SOURCE = Path.of("src/test/resources/loadtest/startup-baseline.properties");
+    static final Path LOG = DIR.resolve("startup.log");
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+
+    static final class Summary {
+        final String mode;
+        final long readyP50;
+        final long readyMax;
+        final long firstRequestP50;
+        final long firstRequestMax;
+
+        Summary(String mode, long[] ready, long[] firstRequest) {
+            Arrays.sort(ready);
+            Arrays.sort(firstRequest);
+            this.mode = mode;
+            this.readyP50 = LoginStormHarness.pct(ready, 50);
+            this.readyMax = LoginStormHarness.pct(ready, 100);
+            this.firstRequestP50 = LoginStormHarness.pct(firstRequest, 50);
+            this.firstRequestMax = LoginStormHarness.pct(firstRequest, 100);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = findJar();
+        Map<String, List<String>> modes = modes();
+        String config = String.format(Locale.ROOT, "db=%s runs=%d java=%d cpus=%d",
+                DB, RUNS, Runtime.version().feature(), Runtime.getRuntime().availableProcessors());
+        System.out.printf("Startup: %s, %s, output of the last run in %s%n%n", config, jar, LOG);
+
+        List<Summary> summaries = new ArrayList<>();
+        for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+            long[] ready = new long[RUNS];
+            long[] firstRequest = new long[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                long[] times = launch(jar, mode.getValue());
+                ready[run] = times[0];
+                firstRequest[run] = times[1];
+                System.out.printf("  %-8s run %d: ready %5d ms, first request %5d ms%n", mode.getKey(), run + 1, times[0], times[1]);
+            }
+            summaries.add(new Summary(mode.getKey(), ready, firstRequest));
+        }
+
+        Properties baseline = new Properties();
+        try (InputStream in = StartupHarness.class.getResourceAsStream(BASELINE_RESOURCE)) {
+            if (in != null) {
+                baseline.load(in);
+            }
+        }
+        boolean regressed = report(summaries, baseline, config);
+        if (Boolean.getBoolean("update-baseline")) {
+            writeBaseline(summaries, config);
+            System.out.println("\nBaseline written to " + BASELINE_SOURCE);
+        }
+        System.exit(regressed && Boolean.getBoolean("fail-on-regression") ? 1 : 0);
+    }
+
+    static Map<String, List<String>> modes() {
+        Map<String, List<String>> known = new LinkedHashMap<>();
+        known.put("jar", List.of());
+        known.put("aot", List.of("-Dspring.aot.enabled=true"));
+        known.put("aot-cds", List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true"));
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        for (String mode : MODES.split(",")) {
+            List<String> flags = known.get(mode.trim());
+            if (flags == null) {
+                throw new IllegalArgumentException("Unknown mode " + mode + ", known: " + known.keySet());
+            }
+            modes.put(mode.trim(), flags);
+        }
+        if (modes.containsKey("aot-cds") && !Files.exists(DIR.resolve("application.jsa"))) {
+            throw new IllegalStateException("No CDS archive in " + DIR + "; build with ./mvnw -Pfaststart -DskipTests package");
+        }
+        return modes;
+    }
+
+    static Path findJar() throws IOException {
+        if (!Files.isDirectory(DIR)) {
+            throw new IllegalStateException(DIR + " not found; build with ./mvnw -Pfaststart -DskipTests package");
+        }
+        try (var files = Files.list(DIR)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".jar")).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No jar in " + DIR));
+        }
+    }
+
+    /** Starts one JVM and returns {ready, first request} in ms since the process was started. */
+    static long[] launch(Path jar, List<String> jvmFlags) throws Exception {
+        int port = freePort();
+        int managementPort = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmFlags);
+        command.add("-jar");
+        command.add(jar.getFileName().toString());
+        command.add("--server.port=" + port);
+        command.add("--management.server.port=" + managementPort);
+        command.add("--spring.jpa.show-sql=false");
+        if ("h2".equals(DB)) {
+            command.add("--spring.datasource.url=jdbc:h2:mem:startup");
+            command.add("--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+        } else if ("mysql".equals(DB)) {
+            command.add("--spring.profiles.active=mysql");
+        } else {
+            throw new IllegalArgumentException("db must be h2 or mysql: " + DB);
+        }
+
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + managementPort + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2)).GET().build();
+        HttpRequest api = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/public/test/role"))
+                .timeout(Duration.ofSeconds(10)).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"institutionalId\":\"1643\"}")).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(DIR.toFile())
+                .redirectErrorStream(true).redirectOutput(LOG.toFile()).start();
+        try {
+            long ready = awaitOk(health, process, start);
+            long firstRequest = awaitOk(api, process, start);
+            return new long[]{ready, firstRequest};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static long awaitOk(HttpRequest request, Process process, long start) throws Exception {
+        long deadline = start + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + LOG);
+            }
+            try {
+                HttpResponse<Void> response = CLIENT.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            } catch (IOException notListeningYet) {
+                // keep polling
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No 200 from " + request.uri() + " within " + TIMEOUT_SECONDS + " s, see " + LOG);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /** Prints the medians next to the baseline; true if any mode got slower beyond the tolerance. */
+    static boolean report(List<Summary> summaries, Properties baseline, String config) {
+        System.out.printf("%n%-8s %13s %13s %17s %17s%n", "mode", "ready p50 ms", "ready max ms", "first-req p50 ms", "first-req max ms");
+        for (Summary s : summaries) {
+            System.out.printf("%-8s %13d %13d %17d %17d%n", s.mode, s.readyP50, s.readyMax, s.firstRequestP50, s.firstRequestMax);
+        }
+
+        if (baseline.isEmpty()) {
+            System.out.println("\nNo baseline recorded; run with -Dupdate-baseline=true to record one.");
+            return false;
+        }
+        System.out.println("\nAgainst baseline (tolerance " + Math.round(TOLERANCE * 100) + "%):");
+        if (!config.equals(baseline.getProperty("config"))) {
+            System.out.println("  note: baseline was recorded with " + baseline.getProperty("config"));
+        }
+        boolean regressed = false;
+        for (Summary s : summaries) {
+            String baseReady = baseline.getProperty(s.mode + ".ready.p50");
+            String baseFirst = baseline.getProperty(s.mode + ".first-request.p50");
+            if (baseReady == null || baseFirst == null) {
+                System.out.printf("  %-8s no baseline%n", s.mode);
+                continue;
+            }
+            boolean worse = slower(s.readyP50, Long.parseLong(baseReady)) || slower(s.firstRequestP50, Long.parseLong(baseFirst));
+            System.out.printf("  %-8s ready %+6d ms  first request %+6d ms  %s%n", s.mode,
+                    s.readyP50 - Long.parseLong(baseReady), s.firstRequestP50 - Long.parseLong(baseFirst),
+                    worse ? "REGRESSION" : "ok");
+            regressed |= worse;
+        }
+        return regressed;
+    }
+
+    private static boolean slower(long millis, long baselineMillis) {
+        return millis > baselineMillis * (1 + TOLERANCE) && millis - baselineMillis > NOISE_FLOOR_MILLIS;
+    }
+
+    // written by hand to keep a stable order and no timestamp, so baseline updates diff cleanly
+    static void writeBaseline(List<Summary> summaries, String config) throws IOException {
+        StringBuilder out = new StringBuilder()
+                .append("# Startup baseline, written by StartupHarness -Dupdate-baseline=true.\n")
+                .append("# Median ms from process start. Only comparable between runs with the same config on similar hardware.\n")
+                .append("config=").append(config).append('\n');
+        for (Summary s : summaries) {
+            out.append(String.format(Locale.ROOT, "%s.ready.p50=%d%n%s.first-request.p50=%d%n",
+                    s.mode, s.readyP50, s.mode, s.firstRequestP50));
+        }
+        Files.createDirectories(BASELINE_SOURCE.getParent());
+        Files.writeString(BASELINE_SOURCE, out);
+    }
+}
@@ -0,0 +1,163 @@
+package com.scholarsync.backend.loadtest;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Seeds the schema Hibernate created with a reproducible data set: {@code courses} courses of
+ * {@code studentsPerCourse} students each, with {@code groupedFraction} of every course already
+ * in groups of {@code groupSize}. Rows go in with batched JDBC inserts, which loads 100k students
+ * in seconds where entity saves would take minutes.
+ *
+ * The same seed always produces the same names, IDs and groups. Students left ungrouped are handed
+ * out (once each) to the requests that create groups, see {@link #takeUngrouped}.
+ */
+final class SyntheticData {
+
+    static final long FIRST_COURSE_ID = 1001;
+
+    private static final String[] FIRST_NAMES = {
+            "Maria", "Jose", "Juan", "Ana", "Mark", "John", "Angel", "Christian", "Kristine", "Paolo",
+            "Andrea", "Carlo", "Patricia", "Miguel", "Nicole", "Gabriel", "Camille", "Rafael", "Bea", "Joshua",
+            "Francis", "Jasmine", "Kenneth", "Trisha", "Adrian", "Erika", "Vincent", "Hannah", "Daniel", "Sophia"};
+    private static final String[] LAST_NAMES = {
+            "Santos", "Reyes", "Cruz", "Bautista", "Ocampo", "Garcia", "Mendoza", "Torres", "Tomas", "Andrada",
+            "Castillo", "Flores", "Villanueva", "Ramos", "Castro", "Rivera", "Aquino", "Navarro", "Salazar", "Mercado",
+            "Dela Cruz", "Gonzales", "Lopez", "Del Rosario", "Aguilar", "Pascual", "Soriano", "Fernandez", "Domingo", "Valdez"};
+
+    private static final int BATCH = 1000;
+
+    final int courses;
+    final int studentsPerCourse;
+    final int groupSize;
+    final double groupedFraction;
+    final long seed;
+
+    /** Every student ID, per course, for lookups. */
+    final Map<Long, List<String>> studentsByCourse = new ConcurrentHashMap<>();
+    private final Map<Long, Queue<String>> ungroupedByCourse = new ConcurrentHashMap<>();
+
+    SyntheticData(int courses, int studentsPerCourse, int groupSize, double groupedFraction, long seed) {
+        this.courses = courses;
+        this.studentsPerCourse = studentsPerCourse;
+        this.groupSize = groupSize;
+        this.groupedFraction = groupedFraction;
+        this.seed = seed;
+    }
+
+    int totalStudents() {
+        return courses * studentsPerCourse;
+    }
+
+    long courseId(int index) {
+        return FIRST_COURSE_ID + index;
+    }
+
+    /** Fragments a person would type into the student typeahead: name prefixes and ID prefixes. */
+    static String typeaheadQuery(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                return last.substring(0, 2 + random.nextInt(Math.min(3, last.length() - 1)));
+            case 1:
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                return first.substring(0, 2 + random.nextInt(Math.min(3, first.length() - 1)));
+            default:
+                return String.format("%02d-%d", 20 + random.nextInt(5), random.nextInt(10));
+        }
+    }
+
+    static String studentId(int index) {
+        return String.format("%02d-%04d-%03d", 20 + index / 10_000_000, (index / 1000) % 10_000, index % 1000);
+    }
+
+    /** Removes and returns {@code count} ungrouped students of the course, or null if it has run out. */
+    List<String> takeUngrouped(long courseId, int count) {
+        Queue<String> queue = ungroupedByCourse.get(courseId);
+        List<String> taken = new ArrayList<>(count);
+        synchronized (queue) {
+            if (queue.size() < count) {
+                return null;
+            }
+            for (int i = 0; i < count; i++) {
+                taken.add(queue.poll());
+            }
+        }
+        return taken;
+    }
+
+    void seed(JdbcTemplate jdbc) {
+        Integer existing = jdbc.queryForObject("select count(*) from students", Integer.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("students already has " + existing + " rows; seed a scratch database");
+        }
+        Random random = new Random(seed);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> students = new ArrayList<>(BATCH);
+        List<Object[]> groups = new ArrayList<>(BATCH);
+        List<Object[]> members = new ArrayList<>(BATCH);
+
+        int index = 0;
+        for (int c = 0; c < courses; c++) {
+            long courseId = courseId(c);
+            List<String> ids = new ArrayList<>(studentsPerCourse);
+            Queue<String> ungrouped = new ConcurrentLinkedQueue<>();
+            int grouped = (int) (studentsPerCourse * groupedFraction) / groupSize * groupSize;
+
+            String groupId = null;
+            for (int s = 0; s < studentsPerCourse; s++, index++) {
+                String id = studentId(index);
+                ids.add(id);
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                String email = (first + "." + last).toLowerCase().replace(" ", "") + "." + index + "@cit.edu";
+
+                if (s < grouped) {
+                    if (s % groupSize == 0) {
+                        groupId = new UUID(random.nextLong(), random.nextLong()).toString();
+                        groups.add(new Object[]{groupId, "Team " + (s / groupSize + 1), courseId, id, null, now});
+                    }
+                    members.add(new Object[]{groupId, id});
+                } else {
+                    groupId = null;
+                    ungrouped.add(id);
+                }
+                students.add(new Object[]{id, courseId, groupId, last, first, email});
+
+                if (students.size() == BATCH) {
+                    flush(jdbc, students, groups, members);
+                }
+            }
+            studentsByCourse.put(courseId, ids);
+            ungroupedByCourse.put(courseId, ungrouped);
+        }
+        flush(jdbc, students, groups, members);
+    }
+
+    private static void flush(JdbcTemplate jdbc, List<Object[]> students, List<Object[]> groups, List<Object[]> members) {
+        if (!groups.isEmpty()) {
+            jdbc.batchUpdate("insert into groups (group_id, group_name, course_id, leader_student_id, adviser_id, created_at)"
+                    + " values (?, ?, ?, ?, ?, ?)", groups);
+            groups.clear();
+        }
+        if (!members.isEmpty()) {
+            jdbc.batchUpdate("insert into group_entity_member_student_ids (group_entity_group_id, member_student_ids)"
+                    + " values (?, ?)", members);
+            members.clear();
+        }
+        if (!students.isEmpty()) {
+            jdbc.batchUpdate("insert into students (student_id, course_id, group_id, lastname, firstname, email)"
+                    + " values (?, ?, ?, ?, ?, ?)", students);
+            students.clear();
+        }
+    }
+}
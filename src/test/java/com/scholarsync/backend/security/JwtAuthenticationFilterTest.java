@@ -0,0 +1,117 @@
+package com.scholarsync.backend.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.RevokedTokenRepository;
+import com.scholarsync.backend.repository.UserRepository;
+import com.scholarsync.backend.service.UserService;
+import jakarta.servlet.http.Cookie;
+import java.util.Base64;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final UserVersionTable versions = new UserVersionTable(userRepository, 30000, 100000);
+    private final UserService userService = Mockito.mock(UserService.class);
+    private final RevokedTokenRepository revokedTokenRepository = Mockito.mock(RevokedTokenRepository.class);
+    private final TokenRevocationService revocations = new TokenRevocationService(revokedTokenRepository, 1000, 0.01);
+    private final JwtService jwtService = new JwtService(versions, SECRET, 60000, 100);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userService, versions, revocations, true);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/students");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    void buildsPrincipalFromClaimsWithoutQueryingUsers() throws Exception {
+        User user = User.builder().id(UUID.randomUUID()).email("t@cit.edu").microsoftId("ms-t").role(Role.TEACHER).build();
+        versions.record(user);
+
+        Authentication auth = authenticate(jwtService.generateToken(user));
+
+        assertThat(auth).isNotNull();
+        assertThat(auth.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_TEACHER");
+        User principal = (User) auth.getPrincipal();
+        assertThat(principal.getId()).isEqualTo(user.getId());
+        assertThat(principal.getEmail()).isEqualTo("t@cit.edu");
+        Mockito.verifyNoInteractions(userService, userRepository, revokedTokenRepository);
+    }
+
+    @Test
+    void rejectsTokenIssuedBeforeRoleChange() throws Exception {
+        User user = User.builder().id(UUID.randomUUID()).email("s@cit.edu").microsoftId("ms-s").role(Role.UNKNOWN).build();
+        versions.record(user);
+        String oldToken = jwtService.generateToken(user);
+
+        user.setRole(Role.STUDENT);
+        versions.record(user);
+
+        assertThat(authenticate(oldToken)).isNull();
+        assertThat(authenticate(jwtService.generateToken(user))).isNotNull();
+    }
+
+    @Test
+    void rejectsInactiveUsers() throws Exception {
+        User user = User.builder().id(UUID.randomUUID()).email("x@cit.edu").microsoftId("ms-x").role(Role.STUDENT).build();
+        versions.record(user);
+        String token = jwtService.generateToken(user);
+
+        user.setIsActive(false);
+        versions.record(user);
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void rejectsRevokedToken() throws Exception {
+        User user = User.builder().id(UUID.randomUUID()).email("r@cit.edu").microsoftId("ms-r").role(Role.STUDENT).build();
+        versions.record(user);
+        String token = jwtService.generateToken(user);
+        String otherToken = jwtService.generateToken(user);
+        var claims = jwtService.parseVerifiedClaims(token);
+
+        revocations.revoke(claims.getId(), claims.getExpiration().toInstant());
+        Mockito.when(revokedTokenRepository.existsById(claims.getId())).thenReturn(true);
+
+        assertThat(authenticate(token)).isNull();
+        assertThat(authenticate(otherToken)).isNotNull();
+        Mockito.verify(revokedTokenRepository).existsById(claims.getId());
+    }
+
+    @Test
+    void acceptsSessionTokenCookie() throws Exception {
+        User user = User.builder().id(UUID.randomUUID()).email("c@cit.edu").microsoftId("ms-c").role(Role.STUDENT).build();
+        versions.record(user);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/me");
+        request.setCookies(new Cookie("SESSION_TOKEN", jwtService.generateToken(user)));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(auth).isNotNull();
+        assertThat(((User) auth.getPrincipal()).getId()).isEqualTo(user.getId());
+    }
+}
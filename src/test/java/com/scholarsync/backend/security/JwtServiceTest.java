@@ -0,0 +1,67 @@
+package com.scholarsync.backend.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.UserRepository;
+import java.util.Base64;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private final UserVersionTable versions = new UserVersionTable(Mockito.mock(UserRepository.class), 30000, 100000);
+
+    private static User user() {
+        return User.builder().id(UUID.randomUUID()).email("a@cit.edu").microsoftId("ms-1").role(Role.TEACHER).build();
+    }
+
+    @Test
+    void verifiesOnceAndServesClaimsFromCache() {
+        JwtService jwtService = new JwtService(versions, SECRET, 60000, 100);
+        String token = jwtService.generateToken(user());
+
+        var first = jwtService.parseVerifiedClaims(token);
+        var second = jwtService.parseVerifiedClaims(token);
+        assertThat(first).isNotNull();
+        assertThat(second).isSameAs(first);
+        assertThat(jwtService.extractEmail(token)).isEqualTo("a@cit.edu");
+        assertThat(jwtService.extractRole(token)).isEqualTo("TEACHER");
+    }
+
+    @Test
+    void rejectsTamperedAndForeignTokens() {
+        JwtService jwtService = new JwtService(versions, SECRET, 60000, 100);
+        String token = jwtService.generateToken(user());
+        jwtService.parseVerifiedClaims(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThat(jwtService.isTokenValid(tampered)).isFalse();
+        assertThat(jwtService.isTokenValid("not-a-jwt")).isFalse();
+
+        String otherSecret = Base64.getEncoder().encodeToString("fedcba9876543210fedcba9876543210".getBytes());
+        String foreign = new JwtService(versions, otherSecret, 60000, 100).generateToken(user());
+        assertThat(jwtService.isTokenValid(foreign)).isFalse();
+    }
+
+    @Test
+    void expiredTokensAreNotServedFromCache() throws Exception {
+        JwtService jwtService = new JwtService(versions, SECRET, 1000, 100);
+        String token = jwtService.generateToken(user());
+        assertThat(jwtService.isTokenValid(token)).isTrue();
+        Thread.sleep(1100);
+        assertThat(jwtService.isTokenValid(token)).isFalse();
+    }
+
+    @Test
+    void cacheStaysBounded() {
+        JwtService jwtService = new JwtService(versions, SECRET, 60000, 10);
+        for (int i = 0; i < 50; i++) {
+            assertThat(jwtService.isTokenValid(jwtService.generateToken(user()))).isTrue();
+        }
+    }
+}
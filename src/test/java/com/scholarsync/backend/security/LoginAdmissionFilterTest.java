@@ -0,0 +1,80 @@
+package com.scholarsync.backend.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class LoginAdmissionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static MockHttpServletRequest callback() {
+        return new MockHttpServletRequest("GET", "/login/oauth2/code/microsoft");
+    }
+
+    private static MockHttpServletResponse run(LoginAdmissionFilter filter, MockHttpServletRequest request, FilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    @Test
+    void otherPathsAreNotLimited() {
+        LoginAdmissionFilter filter = new LoginAdmissionFilter(0, 0, 0, 2, meterRegistry);
+        MockHttpServletResponse response = run(filter, new MockHttpServletRequest("GET", "/api/auth/me"), (req, res) -> { });
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void queuesUpToLimitThenAsksClientToRetry() throws Exception {
+        LoginAdmissionFilter filter = new LoginAdmissionFilter(1, 1, 5000, 2, meterRegistry);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (req, res) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> run(filter, callback(), slow));
+        assertThat(entered.await(2, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<MockHttpServletResponse> queued = CompletableFuture.supplyAsync(() -> run(filter, callback(), (req, res) -> { }));
+        long deadline = System.currentTimeMillis() + 2000;
+        while (meterRegistry.get("login.admission.queued").gauge().value() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        MockHttpServletResponse rejected = run(filter, callback(), (req, res) -> { });
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(rejected.getContentAsString()).contains("http-equiv=\"refresh\"");
+
+        release.countDown();
+        assertThat(first.get(2, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        assertThat(queued.get(2, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("login.admission.rejected").tag("reason", "queue_full").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void queuedCallbackGivesUpAfterMaxWait() {
+        LoginAdmissionFilter filter = new LoginAdmissionFilter(0, 10, 50, 2, meterRegistry);
+        MockHttpServletResponse response = run(filter, callback(), (req, res) -> { });
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(meterRegistry.get("login.admission.rejected").tag("reason", "wait_timeout").counter().count()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.scholarsync.backend.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.RevokedTokenRepository;
+import com.scholarsync.backend.repository.UserRepository;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+public class LoginHandoffServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private final Set<String> revoked = ConcurrentHashMap.newKeySet();
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private TokenRevocationService revocations;
+    private LoginHandoffService handoffs;
+
+    @BeforeEach
+    void setUp() {
+        // one table shared by every instance: the insert fails on a jti that is already there
+        doAnswer(inv -> {
+            if (!revoked.add(inv.getArgument(0))) {
+                throw new DataIntegrityViolationException("Duplicate entry for key 'PRIMARY'");
+            }
+            return null;
+        }).when(repository).insert(any(), any(), any());
+        when(repository.existsById(any())).thenAnswer(inv -> revoked.contains(inv.<String>getArgument(0)));
+        revocations = new TokenRevocationService(repository, 1000, 0.01);
+        handoffs = new LoginHandoffService(revocations, SECRET, 60000);
+    }
+
+    @Test
+    void codeRedeemsOnce() {
+        UUID userId = UUID.randomUUID();
+        String code = handoffs.issue(userId, true);
+
+        LoginHandoffService.Handoff handoff = handoffs.redeem(code);
+        assertThat(handoff).isNotNull();
+        assertThat(handoff.getUserId()).isEqualTo(userId);
+        assertThat(handoff.isNewUser()).isTrue();
+
+        assertThat(handoffs.redeem(code)).isNull();
+        // a second instance sharing the revocation list refuses it too
+        assertThat(new LoginHandoffService(revocations, SECRET, 60000).redeem(code)).isNull();
+    }
+
+    @Test
+    void codeRedeemsOnceAcrossInstances() throws Exception {
+        // each instance has its own Bloom filter, which has never seen the other's redemption
+        LoginHandoffService other = new LoginHandoffService(new TokenRevocationService(repository, 1000, 0.01), SECRET, 60000);
+        String code = handoffs.issue(UUID.randomUUID(), false);
+
+        assertThat(other.redeem(code)).isNotNull();
+        assertThat(handoffs.redeem(code)).isNull();
+
+        String raced = handoffs.issue(UUID.randomUUID(), false);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<LoginHandoffService.Handoff> a = pool.submit(() -> {
+                start.await();
+                return handoffs.redeem(raced);
+            });
+            Future<LoginHandoffService.Handoff> b = pool.submit(() -> {
+                start.await();
+                return other.redeem(raced);
+            });
+            start.countDown();
+            assertThat(Stream.of(a.get(), b.get()).filter(Objects::nonNull)).hasSize(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsExpiredForgedAndForeignTokens() throws Exception {
+        LoginHandoffService shortLived = new LoginHandoffService(revocations, SECRET, 1);
+        String expired = shortLived.issue(UUID.randomUUID(), false);
+        Thread.sleep(1100);
+        assertThat(handoffs.redeem(expired)).isNull();
+
+        String code = handoffs.issue(UUID.randomUUID(), false);
+        String forged = code.substring(0, code.length() - 2) + (code.endsWith("A") ? "BB" : "AA");
+        assertThat(handoffs.redeem(forged)).isNull();
+        assertThat(handoffs.redeem(null)).isNull();
+        assertThat(handoffs.redeem("")).isNull();
+
+        // API tokens and handoff codes are signed with different keys
+        UserVersionTable versions = new UserVersionTable(mock(UserRepository.class), 30000, 100000);
+        JwtService jwtService = new JwtService(versions, SECRET, 60000, 100);
+        User user = User.builder().id(UUID.randomUUID()).email("a@cit.edu").microsoftId("ms-a").role(Role.ADMIN).build();
+        versions.record(user);
+        assertThat(handoffs.redeem(jwtService.generateToken(user))).isNull();
+        assertThat(jwtService.isTokenValid(handoffs.issue(user.getId(), false))).isFalse();
+    }
+}
@@ -0,0 +1,175 @@
+package com.scholarsync.backend.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.scholarsync.backend.model.RefreshToken;
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.RefreshTokenRepository;
+import com.scholarsync.backend.repository.RevokedTokenRepository;
+import com.scholarsync.backend.repository.UserRepository;
+import com.scholarsync.backend.service.MicrosoftGraphService;
+import com.scholarsync.backend.service.UserService;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+public class LoginTracingTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private final List<SpanData> exported = new CopyOnWriteArrayList<>();
+    private final SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(new SpanExporter() {
+                @Override
+                public CompletableResultCode export(Collection<SpanData> spans) {
+                    exported.addAll(spans);
+                    return CompletableResultCode.ofSuccess();
+                }
+
+                @Override
+                public CompletableResultCode flush() {
+                    return CompletableResultCode.ofSuccess();
+                }
+
+                @Override
+                public CompletableResultCode shutdown() {
+                    return CompletableResultCode.ofSuccess();
+                }
+            }))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void loginStagesAreChildSpansAndTraceIdIsReturned() throws Exception {
+        OtelTracer tracer = new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> { });
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        callback(registry, tracer, response);
+
+        assertThat(response.getRedirectedUrl()).startsWith(OAuth2LoginSuccessHandler.SUCCESS_PATH + "?code=");
+        SpanData login = span("oauth2 login callback");
+        assertThat(response.getHeader(LoginTracing.TRACE_ID_HEADER)).isEqualTo(login.getTraceId());
+        for (String stage : List.of("idp_token_exchange", "idp_user_info", "graph_profile", "user_upsert", "token_issue")) {
+            SpanData child = span("login " + stage);
+            assertThat(child.getTraceId()).isEqualTo(login.getTraceId());
+            assertThat(child.getParentSpanId()).isEqualTo(login.getSpanId());
+        }
+    }
+
+    @Test
+    void noTraceHeaderWithoutTracing() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        callback(ObservationRegistry.NOOP, io.micrometer.tracing.Tracer.NOOP, response);
+
+        assertThat(response.getRedirectedUrl()).startsWith(OAuth2LoginSuccessHandler.SUCCESS_PATH);
+        assertThat(response.getHeader(LoginTracing.TRACE_ID_HEADER)).isNull();
+    }
+
+    /** The callback as the filter chain runs it: the IdP clients (stubbed) inside the OAuth filter, then the success handler. */
+    private static void callback(ObservationRegistry registry, io.micrometer.tracing.Tracer tracer,
+                                 MockHttpServletResponse response) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", LoginAdmissionFilter.CALLBACK_PREFIX + "microsoft");
+        new LoginObservationFilter(registry, tracer).doFilter(request, response, (req, res) -> {
+            LoginTracing.stage(registry, "idp_token_exchange", () -> { });
+            LoginTracing.stage(registry, "idp_user_info", () -> { });
+            handler(registry).onAuthenticationSuccess(request, response, authentication());
+        });
+    }
+
+    private SpanData span(String name) {
+        return exported.stream().filter(s -> s.getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("no span " + name + " in " + exported));
+    }
+
+    private static OAuth2LoginSuccessHandler handler(ObservationRegistry registry) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("jane@cit.edu");
+        user.setMicrosoftId("oid-jane");
+        user.setRole(Role.STUDENT);
+
+        MicrosoftGraphService.UserProfile profile = new MicrosoftGraphService.UserProfile();
+        profile.setId("oid-jane");
+        profile.setMail("jane@cit.edu");
+        profile.setDisplayName("Jane");
+        profile.setJobTitle("22-1234-567");
+        MicrosoftGraphService graphService = mock(MicrosoftGraphService.class);
+        when(graphService.getCachedUserProfileOrElse(any(), anyString(), any())).thenReturn(profile);
+        UserService userService = mock(UserService.class);
+        when(userService.upsertFromOAuth(any(), any(), any(), any())).thenReturn(new UserService.LoginResult(user, false));
+        RefreshTokenRepository refreshTokens = mock(RefreshTokenRepository.class);
+        when(refreshTokens.save(any(RefreshToken.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ClientRegistration registration = ClientRegistration.withRegistrationId("microsoft")
+                .clientId("test").authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .authorizationUri("http://idp.invalid/authorize").tokenUri("http://idp.invalid/token").build();
+        OAuth2AuthorizedClientService authorizedClients = new OAuth2AuthorizedClientService() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(String clientRegistrationId, String principalName) {
+                OAuth2AccessToken token = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                        "access-token", Instant.now(), Instant.now().plusSeconds(3600));
+                return (T) new OAuth2AuthorizedClient(registration, principalName, token);
+            }
+
+            @Override
+            public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
+            }
+
+            @Override
+            public void removeAuthorizedClient(String clientRegistrationId, String principalName) {
+            }
+        };
+
+        return new OAuth2LoginSuccessHandler(authorizedClients, graphService, userService,
+                new JwtService(new UserVersionTable(mock(UserRepository.class), 30000, 100000), SECRET, 1800000, 10000),
+                new RefreshTokenService(refreshTokens, 86400000),
+                new LoginHandoffService(new TokenRevocationService(mock(RevokedTokenRepository.class), 1000, 0.01), SECRET, 60000),
+                registry);
+    }
+
+    private static OAuth2AuthenticationToken authentication() {
+        OAuth2User principal = new DefaultOAuth2User(List.of(new SimpleGrantedAuthority("OIDC_USER")),
+                Map.of("oid", "oid-jane", "email", "jane@cit.edu", "name", "Jane"), "email");
+        return new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "microsoft");
+    }
+}
@@ -0,0 +1,82 @@
+package com.scholarsync.backend.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import com.scholarsync.backend.exception.InvalidRefreshTokenException;
+import com.scholarsync.backend.model.RefreshToken;
+import com.scholarsync.backend.repository.RefreshTokenRepository;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class RefreshTokenServiceTest {
+
+    private final Map<String, RefreshToken> byHash = new HashMap<>();
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        RefreshTokenRepository repository = Mockito.mock(RefreshTokenRepository.class);
+        when(repository.save(any(RefreshToken.class))).thenAnswer(inv -> {
+            RefreshToken t = inv.getArgument(0);
+            t.setId(UUID.randomUUID());
+            byHash.put(t.getTokenHash(), t);
+            return t;
+        });
+        when(repository.findByTokenHash(anyString())).thenAnswer(inv -> Optional.ofNullable(byHash.get(inv.<String>getArgument(0))));
+        when(repository.markUsed(any(UUID.class), any(Instant.class))).thenAnswer(inv -> {
+            for (RefreshToken t : byHash.values()) {
+                if (t.getId().equals(inv.getArgument(0)) && t.getUsedAt() == null) {
+                    t.setUsedAt(inv.getArgument(1));
+                    return 1;
+                }
+            }
+            return 0;
+        });
+        when(repository.revokeFamily(any(UUID.class))).thenAnswer(inv -> {
+            byHash.values().stream().filter(t -> t.getFamilyId().equals(inv.getArgument(0))).forEach(t -> t.setRevoked(true));
+            return 1;
+        });
+        service = new RefreshTokenService(repository, 60000);
+    }
+
+    @Test
+    void rotationKeepsUserAndFamilyExpiry() {
+        UUID userId = UUID.randomUUID();
+        RefreshTokenService.Issued first = service.issue(userId);
+        RefreshTokenService.Issued second = service.rotate(first.getToken());
+
+        assertThat(second.getToken()).isNotEqualTo(first.getToken());
+        assertThat(second.getUserId()).isEqualTo(userId);
+        assertThat(second.getExpiresAt()).isEqualTo(first.getExpiresAt());
+        assertThat(byHash.keySet()).doesNotContain(first.getToken(), second.getToken());
+    }
+
+    @Test
+    void reusingConsumedTokenRevokesFamily() {
+        RefreshTokenService.Issued first = service.issue(UUID.randomUUID());
+        RefreshTokenService.Issued second = service.rotate(first.getToken());
+
+        assertThatThrownBy(() -> service.rotate(first.getToken())).isInstanceOf(InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> service.rotate(second.getToken())).isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void logoutRevokesFamilyAndUnknownTokensAreRejected() {
+        RefreshTokenService.Issued issued = service.issue(UUID.randomUUID());
+        service.revokeFamilyOf(issued.getToken());
+
+        assertThatThrownBy(() -> service.rotate(issued.getToken())).isInstanceOf(InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> service.rotate("unknown")).isInstanceOf(InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> service.rotate(null)).isInstanceOf(InvalidRefreshTokenException.class);
+    }
+}
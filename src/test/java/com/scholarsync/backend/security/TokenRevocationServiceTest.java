@@ -0,0 +1,79 @@
+package com.scholarsync.backend.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.scholarsync.backend.repository.RevokedTokenRepository;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+public class TokenRevocationServiceTest {
+
+    // revoked_tokens shared by both instances: jti -> revoked_at
+    private final Map<String, Instant> table = new ConcurrentHashMap<>();
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+
+    private TokenRevocationService here;
+    private TokenRevocationService elsewhere;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(inv -> {
+            if (table.putIfAbsent(inv.getArgument(0), inv.getArgument(2)) != null) {
+                throw new DataIntegrityViolationException("Duplicate entry for key 'PRIMARY'");
+            }
+            return null;
+        }).when(repository).insert(any(), any(), any());
+        when(repository.existsById(any())).thenAnswer(inv -> table.containsKey(inv.<String>getArgument(0)));
+        when(repository.findActiveJtis(any())).thenAnswer(inv -> table.keySet().stream().toList());
+        when(repository.findActiveJtisRevokedAfter(any(), any())).thenAnswer(inv -> table.entrySet().stream()
+                .filter(e -> e.getValue().isAfter(inv.getArgument(0)))
+                .map(Map.Entry::getKey)
+                .toList());
+        here = new TokenRevocationService(repository, 1000, 0.01);
+        elsewhere = new TokenRevocationService(repository, 1000, 0.01);
+        here.rebuildOnStartup();
+        elsewhere.rebuildOnStartup();
+    }
+
+    @Test
+    void revocationOnAnotherInstanceIsEnforcedAfterRefresh() {
+        elsewhere.revoke("logged-out", Instant.now().plusSeconds(600));
+        assertThat(elsewhere.isRevoked("logged-out")).isTrue();
+        assertThat(here.isRevoked("logged-out")).isFalse(); // not in this filter yet
+
+        here.refresh();
+
+        assertThat(here.isRevoked("logged-out")).isTrue();
+    }
+
+    @Test
+    void refreshPicksUpRowsStampedBeforeTheLastOneWithinTheOverlap() {
+        here.refresh();
+        // committed after that refresh, but stamped (by a slow clock or a long transaction) before it
+        table.put("late", Instant.now().minus(TokenRevocationService.REFRESH_OVERLAP).plusSeconds(5));
+
+        here.refresh();
+
+        assertThat(here.isRevoked("late")).isTrue();
+    }
+
+    @Test
+    void revokingTwiceKeepsTheFirstRow() {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        here.revoke("jti", expiresAt);
+        Instant revokedAt = table.get("jti");
+
+        assertThatCode(() -> elsewhere.revoke("jti", expiresAt)).doesNotThrowAnyException();
+        assertThat(table.get("jti")).isEqualTo(revokedAt);
+        assertThat(elsewhere.isRevoked("jti")).isTrue();
+    }
+}
@@ -0,0 +1,99 @@
+package com.scholarsync.backend.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.UserRepository;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+public class UserVersionTableTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private static User user(Role role, boolean active) {
+        return User.builder().id(UUID.randomUUID()).email("u@cit.edu").microsoftId("ms-u").role(role).isActive(active).build();
+    }
+
+    private static User copy(User user, Role role, boolean active) {
+        return User.builder().id(user.getId()).email(user.getEmail()).microsoftId(user.getMicrosoftId()).role(role).isActive(active).build();
+    }
+
+    @Test
+    void servesRecordedUsersWithoutQueryingWithinTheTtl() {
+        UserVersionTable versions = new UserVersionTable(userRepository, 60000, 100);
+        User user = user(Role.STUDENT, true);
+        versions.record(user);
+
+        assertThat(versions.isCurrent(user.getId(), "STUDENT", 0)).isTrue();
+        verify(userRepository, never()).findById(user.getId());
+    }
+
+    @Test
+    void seesRoleChangesAndDeactivationsMadeElsewhereAfterTheTtl() {
+        UserVersionTable versions = new UserVersionTable(userRepository, 0, 100); // every use re-reads
+        User user = user(Role.STUDENT, true);
+        versions.record(user);
+
+        // another instance promotes the user
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(copy(user, Role.TEACHER, true)));
+        assertThat(versions.isCurrent(user.getId(), "STUDENT", 0)).isFalse();
+        assertThat(versions.currentVersion(user.getId())).isEqualTo(1);
+        assertThat(versions.isCurrent(user.getId(), "TEACHER", 1)).isTrue();
+
+        // ... then deactivates and finally deletes them
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(copy(user, Role.TEACHER, false)));
+        assertThat(versions.isCurrent(user.getId(), "TEACHER", 1)).isFalse();
+        when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
+        assertThat(versions.isCurrent(user.getId(), "TEACHER", 2)).isFalse();
+    }
+
+    @Test
+    void userWithoutAnActiveFlagCountsAsActive() {
+        UserVersionTable versions = new UserVersionTable(userRepository, 60000, 100);
+        User user = user(Role.STUDENT, true);
+        user.setIsActive(null);
+        versions.record(user);
+
+        assertThat(user.isActiveAccount()).isTrue();
+        assertThat(versions.isCurrent(user.getId(), "STUDENT", 0)).isTrue();
+    }
+
+    @Test
+    void staysWithinMaxSize() {
+        UserVersionTable versions = new UserVersionTable(userRepository, 60000, 10);
+        User first = user(Role.STUDENT, true);
+        versions.record(first);
+        for (int i = 0; i < 100; i++) {
+            versions.record(user(Role.STUDENT, true));
+        }
+
+        // evicted users are loaded again on their next use
+        when(userRepository.findById(first.getId())).thenReturn(Optional.of(first));
+        assertThat(versions.isCurrent(first.getId(), "STUDENT", 0)).isTrue();
+        verify(userRepository, times(1)).findById(first.getId());
+        assertThat(versions.isCurrent(first.getId(), "STUDENT", 0)).isTrue();
+        verify(userRepository, times(1)).findById(first.getId());
+    }
+
+    @Test
+    void keepsAChangeRecordedWhileReReading() {
+        UserVersionTable versions = new UserVersionTable(userRepository, 0, 100);
+        User user = user(Role.STUDENT, true);
+        versions.record(user);
+        when(userRepository.findById(user.getId())).thenAnswer(inv -> {
+            // this process changes the role while the old row is being read
+            versions.record(copy(user, Role.TEACHER, true));
+            return Optional.of(user);
+        });
+
+        assertThat(versions.currentVersion(user.getId())).isEqualTo(1);
+    }
+}
@@ -0,0 +1,219 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.scholarsync.backend.dto.AutoGroupPlan;
+import com.scholarsync.backend.dto.CourseChangeEvent;
+import com.scholarsync.backend.model.GroupEntity;
+import com.scholarsync.backend.model.Student;
+import com.scholarsync.backend.repository.GroupRepository;
+import com.scholarsync.backend.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+public class AutoGroupingServiceTest {
+
+    private static final long COURSE = 7L;
+    private static final int BATCH_SIZE = 50;
+
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final GroupRepository groupRepository = mock(GroupRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final CourseChangeSequencer sequencer = mock(CourseChangeSequencer.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final AutoGroupingService service = new AutoGroupingService(studentRepository, groupRepository, entityManager,
+            sequencer, events, BATCH_SIZE);
+
+    private static List<Student> students(int count) {
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(new Student(String.format("S%05d", i), COURSE, null, "Last", "First", null, null));
+        }
+        return students;
+    }
+
+    private static GroupEntity group(String id, int createdSecond, String... members) {
+        return new GroupEntity(id, "Team " + id, COURSE, members[0], new ArrayList<>(List.of(members)), null,
+                Instant.ofEpochSecond(createdSecond), 1L);
+    }
+
+    private static int[] sizes(AutoGroupingService.Assignment a) {
+        int[] sizes = new int[a.existingGroups + a.newGroups];
+        for (int slot : a.groupOf) {
+            sizes[slot]++;
+        }
+        return sizes;
+    }
+
+    @Test
+    void fillsPartialGroupsBeforeCreatingNewOnes() {
+        var a = AutoGroupingService.assign(7, new int[]{2, 1}, 4, false);
+        assertThat(a.existingGroups).isEqualTo(2);
+        assertThat(a.newGroups).isEqualTo(1);
+        assertThat(a.groupOf).containsExactly(0, 0, 1, 2, 2, 2, 2);
+    }
+
+    @Test
+    void leavesShortLastGroupWithoutBalancing() {
+        var a = AutoGroupingService.assign(11, new int[0], 5, false);
+        assertThat(sizes(a)).containsExactly(5, 5, 1);
+    }
+
+    @Test
+    void balancesNewGroupSizes() {
+        var a = AutoGroupingService.assign(11, new int[0], 5, true);
+        assertThat(sizes(a)).containsExactly(4, 4, 3);
+    }
+
+    @Test
+    void noStudentsMeansNoGroups() {
+        var a = AutoGroupingService.assign(0, new int[]{3}, 4, true);
+        assertThat(a.groupOf).isEmpty();
+        assertThat(a.newGroups).isZero();
+    }
+
+    @Test
+    void assignsLargeCourseWithinGroupSize() {
+        var a = AutoGroupingService.assign(20_000, new int[]{1, 2, 3}, 5, true);
+        assertThat(a.newGroups).isEqualTo(3999);
+        for (int size : sizes(a)) {
+            assertThat(size).isBetween(1, 5);
+        }
+    }
+
+    @Test
+    void appliesLargeCourseWithOneReadPerTableAndBatchedWrites() {
+        int unassigned = 20_000;
+        when(studentRepository.findUnassignedByCourseId(COURSE)).thenReturn(students(unassigned));
+        when(groupRepository.findAllByCourseId(COURSE)).thenReturn(List.of(group("g1", 1, "P1", "P2", "P3", "P4")));
+
+        AutoGroupPlan plan = service.apply(COURSE, 5, true, true);
+
+        assertThat(plan.getGroupsFilled()).isEqualTo(1);
+        assertThat(plan.getGroupsCreated()).isEqualTo(4000);
+        // the roster is read once, whatever its size ...
+        verify(studentRepository).findUnassignedByCourseId(COURSE);
+        verify(groupRepository).findAllByCourseId(COURSE);
+        verifyNoMoreInteractions(studentRepository, groupRepository);
+        // ... and written in JDBC batches: one persist per new group, one flush per batch plus the last
+        verify(entityManager, times(4000)).persist(any(GroupEntity.class));
+        verify(entityManager, atMost((unassigned + plan.getGroups().size()) / BATCH_SIZE + 1)).flush();
+        verify(sequencer, times(1)).next(COURSE);
+        verify(events, times(4001)).publishEvent(any(CourseChangeEvent.class));
+    }
+
+    @Test
+    void previewPlansWithoutWriting() {
+        when(studentRepository.findUnassignedByCourseId(COURSE)).thenReturn(students(3));
+        when(groupRepository.findAllByCourseId(COURSE)).thenReturn(List.of(group("g1", 1, "P1", "P2")));
+
+        AutoGroupPlan plan = service.preview(COURSE, 4, true, false);
+
+        assertThat(plan.getGroups()).extracting(AutoGroupPlan.PlannedGroup::getGroupName).containsExactly("Team g1", "AUTO-1");
+        assertThat(plan.getGroups().get(0).getAddedStudentIds()).containsExactly("S00000", "S00001");
+        assertThat(plan.getGroups().get(1).getAddedStudentIds()).containsExactly("S00002");
+        verifyNoInteractions(entityManager, sequencer, events);
+    }
+
+    @Test
+    void applyFillsPartialGroupsInCreationOrderThenCreatesNewOnes() {
+        List<Student> students = students(7);
+        GroupEntity older = group("g-old", 1, "P1", "P2");
+        GroupEntity newer = group("g-new", 2, "Q1", "Q2", "Q3");
+        GroupEntity full = group("g-full", 0, "R1", "R2", "R3", "R4");
+        when(studentRepository.findUnassignedByCourseId(COURSE)).thenReturn(students);
+        when(groupRepository.findAllByCourseId(COURSE)).thenReturn(List.of(newer, full, older));
+        when(sequencer.next(COURSE)).thenReturn(42L);
+
+        AutoGroupPlan plan = service.apply(COURSE, 4, true, false);
+
+        assertThat(plan.getGroupsFilled()).isEqualTo(2);
+        assertThat(plan.getGroupsCreated()).isEqualTo(1);
+        // the partial groups' own member lists grow, and their students point at them
+        assertThat(older.getMemberStudentIds()).containsExactly("P1", "P2", "S00000", "S00001");
+        assertThat(newer.getMemberStudentIds()).containsExactly("Q1", "Q2", "Q3", "S00002");
+        assertThat(full.getMemberStudentIds()).containsExactly("R1", "R2", "R3", "R4");
+        assertThat(older.getChangeSeq()).isEqualTo(42L);
+        assertThat(newer.getChangeSeq()).isEqualTo(42L);
+        assertThat(full.getChangeSeq()).isEqualTo(1L);
+        assertThat(students).extracting(Student::getGroupId).startsWith("g-old", "g-old", "g-new");
+
+        ArgumentCaptor<GroupEntity> created = ArgumentCaptor.forClass(GroupEntity.class);
+        verify(entityManager).persist(created.capture());
+        assertThat(created.getValue().getGroupName()).isEqualTo("AUTO-1");
+        assertThat(created.getValue().getMemberStudentIds()).containsExactly("S00003", "S00004", "S00005", "S00006");
+        assertThat(created.getValue().getLeaderStudentId()).isEqualTo("S00003");
+        assertThat(students.subList(3, 7)).extracting(Student::getGroupId).containsOnly(created.getValue().getGroupId());
+        assertThat(students).extracting(Student::getChangeSeq).containsOnly(42L);
+
+        ArgumentCaptor<CourseChangeEvent> published = ArgumentCaptor.forClass(CourseChangeEvent.class);
+        verify(events, times(3)).publishEvent(published.capture());
+        assertThat(published.getAllValues()).extracting(CourseChangeEvent::getType).containsExactly(
+                CourseChangeEvent.Type.GROUP_CHANGED, CourseChangeEvent.Type.GROUP_CHANGED, CourseChangeEvent.Type.GROUP_CREATED);
+    }
+
+    @Test
+    void applyLeavesPartialGroupsWithoutNewMembersUntouched() {
+        List<Student> students = students(1);
+        GroupEntity first = group("g1", 1, "P1", "P2");
+        GroupEntity second = group("g2", 2, "Q1");
+        when(studentRepository.findUnassignedByCourseId(COURSE)).thenReturn(students);
+        when(groupRepository.findAllByCourseId(COURSE)).thenReturn(List.of(first, second));
+        when(sequencer.next(COURSE)).thenReturn(42L);
+
+        AutoGroupPlan plan = service.apply(COURSE, 4, true, false);
+
+        assertThat(plan.getGroups()).extracting(AutoGroupPlan.PlannedGroup::getGroupId).containsExactly("g1");
+        assertThat(first.getMemberStudentIds()).containsExactly("P1", "P2", "S00000");
+        assertThat(second.getMemberStudentIds()).containsExactly("Q1");
+        assertThat(second.getChangeSeq()).isEqualTo(1L);
+        assertThat(students.get(0).getGroupId()).isEqualTo("g1");
+        verify(entityManager, times(0)).persist(any());
+        verify(events, times(1)).publishEvent(any(CourseChangeEvent.class));
+    }
+
+    @Test
+    void applyFillsAPartialGroupWithoutAMemberList() {
+        List<Student> students = students(2);
+        GroupEntity empty = group("g1", 1, "P1");
+        empty.setMemberStudentIds(null);
+        when(studentRepository.findUnassignedByCourseId(COURSE)).thenReturn(students);
+        when(groupRepository.findAllByCourseId(COURSE)).thenReturn(List.of(empty));
+        when(sequencer.next(COURSE)).thenReturn(42L);
+
+        AutoGroupPlan plan = service.apply(COURSE, 4, true, false);
+
+        assertThat(plan.getGroupsFilled()).isEqualTo(1);
+        assertThat(plan.getGroupsCreated()).isZero();
+        assertThat(empty.getMemberStudentIds()).containsExactly("S00000", "S00001");
+        assertThat(students).extracting(Student::getGroupId).containsOnly("g1");
+    }
+
+    @Test
+    void applyIgnoresPartialGroupsUnlessAskedToKeepThem() {
+        List<Student> students = students(3);
+        GroupEntity partial = group("g1", 1, "P1", "P2");
+        when(studentRepository.findUnassignedByCourseId(COURSE)).thenReturn(students);
+        when(groupRepository.findAllByCourseId(COURSE)).thenReturn(List.of(partial));
+
+        AutoGroupPlan plan = service.apply(COURSE, 4, false, false);
+
+        assertThat(plan.getGroupsFilled()).isZero();
+        assertThat(plan.getGroupsCreated()).isEqualTo(1);
+        assertThat(partial.getMemberStudentIds()).containsExactly("P1", "P2");
+        verify(entityManager).persist(any(GroupEntity.class));
+    }
+}
@@ -0,0 +1,100 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The first write to a course comes from two transactions at once: the second must wait for the
+ * first to commit (numbers commit in order) and then get the next number, not hang or fail.
+ */
+public class CourseChangeSequencerTest {
+
+    private static final String TABLE = "create table if not exists course_change_seq"
+            + " (course_id bigint not null primary key, last_seq bigint not null)";
+
+    private static DataSource h2(String name, String mode) {
+        DataSource ds = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000" + mode);
+        new JdbcTemplate(ds).execute(TABLE);
+        return ds;
+    }
+
+    @Test
+    void h2FirstWritesFromTwoTransactions() throws Exception {
+        DataSource ds = h2("sequencer", "");
+        firstWritesFromTwoTransactions(ds, new CourseChangeSequencer(new JdbcTemplate(ds), false), 7L);
+    }
+
+    @Test
+    void mySqlUpsertFirstWritesFromTwoTransactions() throws Exception {
+        DataSource ds = h2("sequencer_mysql", ";MODE=MySQL");
+        firstWritesFromTwoTransactions(ds, new CourseChangeSequencer(new JdbcTemplate(ds), true), 7L);
+    }
+
+    @Test
+    void currentIsZeroBeforeTheFirstChange() {
+        DataSource ds = h2("sequencer_current", "");
+        CourseChangeSequencer sequencer = new CourseChangeSequencer(new JdbcTemplate(ds), false);
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+
+        assertThat(sequencer.current(9L)).isZero();
+        tx.execute(s -> sequencer.next(9L));
+        tx.execute(s -> sequencer.next(9L));
+        assertThat(sequencer.current(9L)).isEqualTo(2);
+    }
+
+    /** Against a real InnoDB server, where gap locks apply: MYSQL_TEST_URL=jdbc:mysql://localhost:3306/scholarsync_test */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "MYSQL_TEST_URL", matches = ".+")
+    void mySqlFirstWritesFromTwoTransactions() throws Exception {
+        DataSource ds = new DriverManagerDataSource(System.getenv("MYSQL_TEST_URL"),
+                System.getenv().getOrDefault("MYSQL_TEST_USER", "root"), System.getenv().getOrDefault("MYSQL_TEST_PASSWORD", ""));
+        new JdbcTemplate(ds).execute(TABLE);
+        CourseChangeSequencer sequencer = new CourseChangeSequencer(new JdbcTemplate(ds));
+        firstWritesFromTwoTransactions(ds, sequencer, ThreadLocalRandom.current().nextLong(1L << 40, 1L << 50));
+    }
+
+    private static void firstWritesFromTwoTransactions(DataSource ds, CourseChangeSequencer sequencer, long courseId) throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+        CountDownLatch firstNumbered = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> first = pool.submit(() -> tx.execute(s -> {
+                long seq = sequencer.next(courseId);
+                firstNumbered.countDown();
+                try {
+                    commitFirst.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return seq;
+            }));
+            assertThat(firstNumbered.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<Long> second = pool.submit(() -> tx.execute(s -> sequencer.next(courseId)));
+
+            assertThatThrownBy(() -> second.get(300, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            commitFirst.countDown();
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(2);
+            assertThat(sequencer.current(courseId)).isEqualTo(2);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
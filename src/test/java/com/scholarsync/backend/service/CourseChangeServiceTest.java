@@ -0,0 +1,88 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.scholarsync.backend.dto.CourseChanges;
+import com.scholarsync.backend.model.GroupEntity;
+import com.scholarsync.backend.model.Student;
+import com.scholarsync.backend.repository.GroupRepository;
+import com.scholarsync.backend.repository.StudentRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+public class CourseChangeServiceTest {
+
+    private final StudentRepository students = mock(StudentRepository.class);
+    private final GroupRepository groups = mock(GroupRepository.class);
+    private final CourseChangeSequencer sequencer = mock(CourseChangeSequencer.class);
+    private final CourseChangeService service = new CourseChangeService(students, groups, sequencer, 3);
+
+    private static List<Student> changed(int count, long seq) {
+        List<Student> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(new Student("S" + i, 7L, "g1", "L", "F", "s" + i + "@cit.edu", seq));
+        }
+        return list;
+    }
+
+    @Test
+    void sinceZeroReturnsTheWholeRoster() {
+        when(sequencer.current(7L)).thenReturn(4L);
+        when(students.findAllByCourseId(7L)).thenReturn(changed(5, 4));
+        when(groups.findAllByCourseId(7L)).thenReturn(List.of(
+                new GroupEntity("g1", "Team 1", 7L, "S0", List.of("S0", "S1"), null, Instant.now(), 4L)));
+
+        CourseChanges changes = service.changesSince(7L, 0);
+
+        assertThat(changes.isReset()).isFalse();
+        assertThat(changes.getSeq()).isEqualTo(4);
+        assertThat(changes.getStudents()).hasSize(5); // never capped: this is what a reset client reloads
+        assertThat(changes.getGroups()).extracting("memberStudentIds").containsExactly(List.of("S0", "S1"));
+    }
+
+    @Test
+    void returnsOnlyRowsChangedSinceTheGivenSequence() {
+        when(sequencer.current(7L)).thenReturn(6L);
+        when(students.findChangedSince(eq(7L), eq(4L), any(Pageable.class))).thenReturn(changed(2, 6));
+        when(groups.findChangedSince(7L, 4L)).thenReturn(List.of());
+
+        CourseChanges changes = service.changesSince(7L, 4);
+
+        assertThat(changes.isReset()).isFalse();
+        assertThat(changes.getSince()).isEqualTo(4);
+        assertThat(changes.getSeq()).isEqualTo(6);
+        assertThat(changes.getStudents()).extracting("studentId").containsExactly("S0", "S1");
+        verify(students, never()).findAllByCourseId(any());
+    }
+
+    @Test
+    void resetsWhenTooManyRowsChanged() {
+        when(sequencer.current(7L)).thenReturn(9L);
+        when(students.findChangedSince(eq(7L), eq(1L), any(Pageable.class))).thenReturn(changed(4, 9));
+
+        CourseChanges changes = service.changesSince(7L, 1);
+
+        assertThat(changes.isReset()).isTrue();
+        assertThat(changes.getSeq()).isEqualTo(9);
+        assertThat(changes.getStudents()).isEmpty();
+        verify(groups, never()).findChangedSince(any(), anyLong());
+    }
+
+    @Test
+    void resetsOnASequenceThisServerNeverIssued() {
+        when(sequencer.current(7L)).thenReturn(2L);
+
+        assertThat(service.changesSince(7L, 5).isReset()).isTrue();
+        verify(students, never()).findChangedSince(any(), anyLong(), any());
+    }
+}
@@ -0,0 +1,186 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scholarsync.backend.dto.CourseChangeEvent;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class CourseEventPublisherTest {
+
+    private CourseEventPublisher publisher;
+
+    @AfterEach
+    void shutdown() {
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+    }
+
+    /** Records the event names it is sent; a stalled one blocks every write until released, like a client that stopped reading. */
+    static class RecordingEmitter extends SseEmitter {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        final CountDownLatch release;
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(boolean stalled) {
+            this.release = new CountDownLatch(stalled ? 1 : 0);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String frame = builder.build().stream().map(d -> d.getData().toString()).collect(Collectors.joining());
+            events.add(frame.substring(frame.indexOf("event:") + 6, frame.indexOf('\n', frame.indexOf("event:"))));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static CourseChangeEvent event(long courseId, CourseChangeEvent.Type type) {
+        return new CourseChangeEvent(type, courseId, "g1", "Team 1", List.of("S1"));
+    }
+
+    @Test
+    void fansOutToEverySubscriberOfTheCourse() throws Exception {
+        publisher = new CourseEventPublisher(new ObjectMapper(), 16, 60000, 2, 5000);
+        RecordingEmitter a = new RecordingEmitter(false);
+        RecordingEmitter b = new RecordingEmitter(false);
+        RecordingEmitter otherCourse = new RecordingEmitter(false);
+        publisher.subscribe(1L, a);
+        publisher.subscribe(1L, b);
+        publisher.subscribe(2L, otherCourse);
+
+        publisher.publish(event(1, CourseChangeEvent.Type.GROUP_CREATED));
+        publisher.publish(event(1, CourseChangeEvent.Type.GROUP_CHANGED));
+
+        assertThat(List.of(a.next(), a.next())).containsExactly("GROUP_CREATED", "GROUP_CHANGED");
+        assertThat(List.of(b.next(), b.next())).containsExactly("GROUP_CREATED", "GROUP_CHANGED");
+        assertThat(otherCourse.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void disconnectsASubscriberWhoseBufferOverflowsWithoutBlockingThePublisher() throws Exception {
+        publisher = new CourseEventPublisher(new ObjectMapper(), 2, 60000, 2, 60000);
+        RecordingEmitter slow = new RecordingEmitter(true);
+        RecordingEmitter healthy = new RecordingEmitter(false);
+        publisher.subscribe(1L, slow);
+        publisher.subscribe(1L, healthy);
+
+        publisher.publish(event(1, CourseChangeEvent.Type.GROUP_CHANGED));
+        assertThat(healthy.next()).isEqualTo("GROUP_CHANGED");
+        assertThat(slow.writing.await(5, TimeUnit.SECONDS)).isTrue();
+        // one frame blocked in the write, two buffered, the fourth overflows
+        for (int i = 0; i < 3; i++) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> publisher.publish(event(1, CourseChangeEvent.Type.GROUP_CHANGED)));
+            assertThat(healthy.next()).isEqualTo("GROUP_CHANGED");
+        }
+
+        slow.release.countDown();
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.next()).isEqualTo("GROUP_CHANGED"); // the write that was in progress
+        publisher.publish(event(1, CourseChangeEvent.Type.GROUP_CREATED));
+        assertThat(healthy.next()).isEqualTo("GROUP_CREATED");
+        assertThat(slow.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void dropsAStalledWriterAndKeepsServingTheOthers() throws Exception {
+        publisher = new CourseEventPublisher(new ObjectMapper(), 16, 60000, 1, 50);
+        RecordingEmitter stalled = new RecordingEmitter(true);
+        RecordingEmitter healthy = new RecordingEmitter(false);
+        publisher.subscribe(1L, stalled);
+        publisher.subscribe(1L, healthy);
+
+        // the only dispatch thread blocks in the stalled client's write
+        publisher.publish(event(1, CourseChangeEvent.Type.GROUP_CREATED));
+        assertThat(healthy.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        publisher.dropStalledSubscribers();
+
+        assertThat(healthy.next()).isEqualTo("GROUP_CREATED");
+        publisher.publish(event(1, CourseChangeEvent.Type.GROUP_CHANGED));
+        assertThat(healthy.next()).isEqualTo("GROUP_CHANGED");
+
+        stalled.release.countDown();
+        assertThat(stalled.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stalled.next()).isEqualTo("GROUP_CREATED");
+        assertThat(stalled.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class TransactionalConfig {
+        @Bean
+        DataSource dataSource() {
+            return new DriverManagerDataSource("jdbc:h2:mem:course_events;DB_CLOSE_DELAY=-1");
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        CourseEventPublisher courseEventPublisher() {
+            return new CourseEventPublisher(new ObjectMapper(), 16, 60000, 2, 5000);
+        }
+    }
+
+    @Test
+    void deliversOnlyAfterTheTransactionCommits() throws Exception {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(TransactionalConfig.class)) {
+            RecordingEmitter emitter = new RecordingEmitter(false);
+            context.getBean(CourseEventPublisher.class).subscribe(1L, emitter);
+            TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+            tx.executeWithoutResult(status -> {
+                context.publishEvent(event(1, CourseChangeEvent.Type.GROUP_CREATED));
+                try {
+                    assertThat(emitter.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertThat(emitter.next()).isEqualTo("GROUP_CREATED");
+
+            tx.executeWithoutResult(status -> {
+                context.publishEvent(event(1, CourseChangeEvent.Type.GROUP_CHANGED));
+                status.setRollbackOnly();
+            });
+            assertThat(emitter.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.scholarsync.backend.exception.ImportValidationException;
+import com.scholarsync.backend.model.Student;
+import com.scholarsync.backend.repository.StudentRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+
+public class GroupImportMetricsTest {
+
+    private final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private StudentRepository studentRepository;
+    private EntityManager entityManager;
+    private GroupImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository = mock(StudentRepository.class);
+        entityManager = mock(EntityManager.class);
+        importService = new GroupImportService(studentRepository, entityManager,
+                mock(CourseChangeSequencer.class), mock(ApplicationEventPublisher.class), registry);
+    }
+
+    private static MockMultipartFile excel(String[][] rows) throws Exception {
+        try (Workbook wb = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = wb.createSheet("Sheet1");
+            int r = 0;
+            for (String[] row : rows) {
+                Row ro = sheet.createRow(r++);
+                for (int c = 0; c < row.length; c++) {
+                    ro.createCell(c).setCellValue(row[c]);
+                }
+            }
+            wb.write(out);
+            return new MockMultipartFile("file", "groups.xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray());
+        }
+    }
+
+    private static final long FLUSH_MILLIS = 100;
+
+    private Timer phase(String phase) {
+        return registry.find("import.phase").tags("phase", phase, "course", "7", "format", "xlsx").timer();
+    }
+
+    @Test
+    void recordsEveryPhaseAndCountsOnSuccess() throws Exception {
+        when(studentRepository.findAllByStudentIdIn(anyList())).thenReturn(List.of(
+                new Student("S1", 7L, null, "L1", "F1", "a@b.c", null),
+                new Student("S2", 7L, null, "L2", "F2", "b@b.c", null),
+                new Student("S3", 7L, null, "L3", "F3", "c@b.c", null)));
+
+        importService.importFromExcel(excel(new String[][]{
+            {"TEAM CODE", "MEMBER #", "STUDENT ID"},
+            {"TEAM-A", "1", "S1"},
+            {"TEAM-A", "2", "S2"},
+            {"TEAM-B", "1", "S3"}
+        }), 7L);
+
+        for (String p : List.of("parse", "validate", "persist_groups", "update_students")) {
+            assertThat(phase(p)).as(p).isNotNull();
+            assertThat(phase(p).count()).as(p).isEqualTo(1);
+        }
+        assertThat(registry.get("import.rows").tags("course", "7", "format", "xlsx").counter().count()).isEqualTo(3);
+        assertThat(registry.get("import.teams").tags("course", "7").counter().count()).isEqualTo(2);
+        assertThat(registry.get("import.duration").tags("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.find("import.errors").counter()).isNull();
+
+        String scrape = registry.scrape();
+        assertThat(scrape).contains("import_phase_seconds_bucket{course=\"7\",format=\"xlsx\"");
+        assertThat(scrape).contains("import_rows_total{course=\"7\",format=\"xlsx\"} 3.0");
+    }
+
+    @Test
+    void writesAreFlushedInsideTheirPhase() throws Exception {
+        when(studentRepository.findAllByStudentIdIn(anyList())).thenReturn(List.of(
+                new Student("S1", 7L, null, "L1", "F1", "a@b.c", null)));
+        // the flush is where the SQL runs: make each one take long enough to see which phase it lands in
+        doAnswer(inv -> {
+            Thread.sleep(FLUSH_MILLIS);
+            return null;
+        }).when(entityManager).flush();
+        when(studentRepository.saveAllAndFlush(anyList())).thenAnswer(inv -> {
+            Thread.sleep(FLUSH_MILLIS);
+            return inv.getArgument(0);
+        });
+
+        importService.importFromExcel(excel(new String[][]{
+            {"TEAM-A", "1", "S1"}
+        }), 7L);
+
+        assertThat(phase("persist_groups").totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(FLUSH_MILLIS);
+        assertThat(phase("update_students").totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(FLUSH_MILLIS);
+        verify(entityManager, never()).merge(any());
+        verify(studentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void validationFailureStopsAfterFailingPhase() throws Exception {
+        when(studentRepository.findAllByStudentIdIn(anyList())).thenReturn(List.of(
+                new Student("S1", 7L, null, "L1", "F1", "a@b.c", null)));
+
+        Throwable ex = catchThrowable(() -> importService.importFromExcel(excel(new String[][]{
+            {"TEAM-A", "2", "S1"},
+            {"TEAM-A", "2", "S9"}
+        }), 7L));
+
+        assertThat(ex).isInstanceOf(ImportValidationException.class);
+        assertThat(phase("parse").count()).isEqualTo(1);
+        assertThat(phase("validate").count()).isEqualTo(1);
+        assertThat(phase("persist_groups")).isNull();
+        // S9 does not exist and TEAM-A has no leader
+        assertThat(registry.get("import.errors").tags("course", "7").counter().count()).isEqualTo(2);
+        assertThat(registry.get("import.duration").tags("outcome", "invalid").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unreadableWorkbookCountsAsAnError() {
+        MockMultipartFile corrupt = new MockMultipartFile("file", "groups.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "not a workbook".getBytes());
+
+        Throwable ex = catchThrowable(() -> importService.importFromExcel(corrupt, 7L));
+
+        assertThat(ex).isInstanceOf(RuntimeException.class).isNotInstanceOf(ImportValidationException.class);
+        assertThat(phase("parse")).isNull();
+        assertThat(registry.get("import.errors").tags("course", "7", "format", "xlsx").counter().count()).isEqualTo(1);
+        assertThat(registry.get("import.duration").tags("outcome", "error").timer().count()).isEqualTo(1);
+    }
+}
@@ -56,9 +56,9 @@ public class GroupImportServiceTest {
     @Test
     void importSuccess() throws Exception {
         Long courseId = 1L;
-        Student s1 = new Student("S1", courseId, null, "L1", "F1", "a@b.c");
-        Student s2 = new Student("S2", courseId, null, "L2", "F2", "b@b.c");
-        Student s3 = new Student("S3", courseId, null, "L3", "F3", "c@b.c");
+        Student s1 = new Student("S1", courseId, null, "L1", "F1", "a@b.c", null);
+        Student s2 = new Student("S2", courseId, null, "L2", "F2", "b@b.c", null);
+        Student s3 = new Student("S3", courseId, null, "L3", "F3", "c@b.c", null);
         studentRepository.saveAll(List.of(s1, s2, s3));
 
         String[][] rows = new String[][]{
@@ -80,8 +80,8 @@ public class GroupImportServiceTest {
     @Test
     void manualCreateSuccess() throws Exception {
         Long courseId = 2L;
-        Student s1 = new Student("L1", courseId, null, "L1", "F1", "a@b.c");
-        Student s2 = new Student("M1", courseId, null, "L2", "F2", "b@b.c");
+        Student s1 = new Student("L1", courseId, null, "L1", "F1", "a@b.c", null);
+        Student s2 = new Student("M1", courseId, null, "L2", "F2", "b@b.c", null);
         studentRepository.saveAll(List.of(s1, s2));
 
         var created = importService.createManualGroup("TEAM-M", "L1", courseId, List.of("L1", "M1"));
@@ -96,8 +96,8 @@ public class GroupImportServiceTest {
     @Test
     void manualCreateFailsIfMemberAlreadyAssigned() throws Exception {
         Long courseId = 3L;
-        Student s1 = new Student("L2", courseId, null, "L1", "F1", "a@b.c");
-        Student s2 = new Student("M2", courseId, "existing-group", "L2", "F2", "b@b.c");
+        Student s1 = new Student("L2", courseId, null, "L1", "F1", "a@b.c", null);
+        Student s2 = new Student("M2", courseId, "existing-group", "L2", "F2", "b@b.c", null);
         studentRepository.saveAll(List.of(s1, s2));
 
         var ex = org.assertj.core.api.Assertions.catchThrowable(() -> importService.createManualGroup("TEAM-N", "L2", courseId, List.of("L2", "M2")));
@@ -109,8 +109,8 @@ public class GroupImportServiceTest {
     @Test
     void importFailsWhenNoLeader() throws Exception {
         Long courseId = 1L;
-        Student s1 = new Student("S1", courseId, null, "L1", "F1", "a@b.c");
-        Student s2 = new Student("S2", courseId, null, "L2", "F2", "b@b.c");
+        Student s1 = new Student("S1", courseId, null, "L1", "F1", "a@b.c", null);
+        Student s2 = new Student("S2", courseId, null, "L2", "F2", "b@b.c", null);
         studentRepository.saveAll(List.of(s1, s2));
 
         String[][] rows = new String[][]{
@@ -0,0 +1,76 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.service.InstitutionalIdClassifier.IdPattern;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+public class InstitutionalIdClassifierTest {
+
+    // \b as of JDK 17 (letters and digits of any script are word characters); JDK 19+ made \b ASCII-only
+    private static final Pattern GIVEN_NAME_ID = Pattern.compile("^(\\d{2}-\\d{4}-\\d{3}|\\d{4}-\\d{5}|\\d{1,4})(?![\\p{L}\\p{Nd}_])");
+
+    // the regex chain the classifier replaced
+    private static IdPattern legacyClassify(String id) {
+        if (id == null || id.isEmpty()) return IdPattern.NONE;
+        if (id.matches("\\d{2}-\\d{4}-\\d{3}")) return IdPattern.STUDENT_PATTERN_1;
+        if (id.matches("\\d{4}-\\d{5}")) return IdPattern.STUDENT_PATTERN_2;
+        if (id.matches("\\d{1,4}")) return IdPattern.TEACHER_PATTERN;
+        if (id.matches(".*ADMIN.*|.*ADMINISTRATOR.*")) return IdPattern.ADMIN_PATTERN;
+        return IdPattern.UNKNOWN;
+    }
+
+    private static int legacyPrefixLength(String givenName) {
+        Matcher m = GIVEN_NAME_ID.matcher(givenName);
+        return m.find() ? m.group(1).length() : 0;
+    }
+
+    @Test
+    void classifiesKnownIds() {
+        assertThat(InstitutionalIdClassifier.classify("22-1234-567")).isEqualTo(IdPattern.STUDENT_PATTERN_1);
+        assertThat(InstitutionalIdClassifier.classify("2010-12345")).isEqualTo(IdPattern.STUDENT_PATTERN_2);
+        assertThat(InstitutionalIdClassifier.classify("1643").getRole()).isEqualTo(Role.TEACHER);
+        assertThat(InstitutionalIdClassifier.classify("SYSTEM ADMINISTRATOR").getRole()).isEqualTo(Role.ADMIN);
+        assertThat(InstitutionalIdClassifier.classify("12345")).isEqualTo(IdPattern.UNKNOWN);
+        assertThat(InstitutionalIdClassifier.classify("")).isEqualTo(IdPattern.NONE);
+        assertThat(InstitutionalIdClassifier.classify(null)).isEqualTo(IdPattern.NONE);
+    }
+
+    @Test
+    void extractsIdPrefixFromGivenName() {
+        assertThat(InstitutionalIdClassifier.idPrefixLength("22-0369-330 Giles Anthony")).isEqualTo(11);
+        assertThat(InstitutionalIdClassifier.idPrefixLength("2010-12345 Name")).isEqualTo(10);
+        assertThat(InstitutionalIdClassifier.idPrefixLength("1643 Name")).isEqualTo(4);
+        assertThat(InstitutionalIdClassifier.idPrefixLength("22-0369-330X")).isEqualTo(2);
+        assertThat(InstitutionalIdClassifier.idPrefixLength("Giles 22-0369-330")).isZero();
+        assertThat(InstitutionalIdClassifier.idPrefixLength(null)).isZero();
+    }
+
+    @Test
+    void agreesWithRegexesOnGeneratedInputs() {
+        char[] alphabet = {'0', '1', '9', '-', ' ', 'A', 'D', 'M', 'I', 'N', 'x', '_', '\n', 'é'};
+        Random random = new Random(42);
+        List<String> inputs = new ArrayList<>(List.of("ADMIN", "xADMINx", "AD\nMIN", "ADMIN\n", "22-1234-5678", "2010-1234"));
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = random.nextInt(14);
+            for (int j = 0; j < len; j++) {
+                // bias towards digits so the numeric patterns are actually hit
+                sb.append(random.nextInt(3) > 0 ? (char) ('0' + random.nextInt(10)) : alphabet[random.nextInt(alphabet.length)]);
+            }
+            if (len == 11 && random.nextBoolean()) { sb.setCharAt(2, '-'); sb.setCharAt(7, '-'); }
+            if (len == 10 && random.nextBoolean()) { sb.setCharAt(4, '-'); }
+            inputs.add(sb.toString());
+        }
+        for (String input : inputs) {
+            assertThat(InstitutionalIdClassifier.classify(input)).as(input).isEqualTo(legacyClassify(input));
+            assertThat(InstitutionalIdClassifier.idPrefixLength(input)).as(input).isEqualTo(legacyPrefixLength(input));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MicrosoftGraphServiceTest {
+
+    private StubGraphServer graph;
+    private MicrosoftGraphService service;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        graph = new StubGraphServer();
+        meterRegistry = new SimpleMeterRegistry();
+        service = new MicrosoftGraphService(graph.baseUrl(), 500, 2000, 4, 8, 300, 60000, 60000, 100, 3, 200, 4, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+        graph.close();
+    }
+
+    private static MicrosoftGraphService.UserProfile fallback() {
+        MicrosoftGraphService.UserProfile p = new MicrosoftGraphService.UserProfile();
+        p.setId("from-id-token");
+        return p;
+    }
+
+    @Test
+    void returnsGraphProfileWithinBudget() {
+        MicrosoftGraphService.UserProfile profile = service.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback);
+
+        assertThat(profile.getId()).isEqualTo("oid-1");
+        assertThat(profile.getJobTitle()).isEqualTo("22-1234-567");
+    }
+
+    @Test
+    void fallsBackOnceLatencyBudgetRunsOut() {
+        // read timeout and Graph delay far beyond the 300 ms budget, so only the budget can end the wait
+        // early; the bound leaves seconds of slack for a loaded machine
+        MicrosoftGraphService patient = new MicrosoftGraphService(graph.baseUrl(), 500, 30000, 4, 8, 300,
+                60000, 60000, 100, 3, 200, 4, new SimpleMeterRegistry());
+        try {
+            patient.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback); // warm up the client
+            graph.delay(30000);
+
+            long start = System.nanoTime();
+            MicrosoftGraphService.UserProfile profile = patient.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(profile.getId()).isEqualTo("from-id-token");
+            assertThat(elapsedMillis).isLessThan(10000);
+        } finally {
+            patient.close();
+        }
+    }
+
+    @Test
+    void fallsBackOnGraphError() {
+        graph.status(503);
+
+        assertThat(service.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback).getId())
+                .isEqualTo("from-id-token");
+    }
+
+    @Test
+    void connectFailureFallsBackQuickly() {
+        MicrosoftGraphService unreachable = new MicrosoftGraphService("http://127.0.0.1:1", 200, 2000, 4, 8, 300,
+                60000, 60000, 100, 3, 200, 4, new SimpleMeterRegistry());
+        try {
+            assertThat(unreachable.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback).getId())
+                    .isEqualTo("from-id-token");
+        } finally {
+            unreachable.close();
+        }
+    }
+
+    @Test
+    void cachedProfileSkipsGraphWithinTtl() {
+        service.getCachedUserProfileOrElse("oid-1", "token", MicrosoftGraphServiceTest::fallback);
+        graph.status(503);
+        MicrosoftGraphService.UserProfile profile = service.getCachedUserProfileOrElse("oid-1", "token", MicrosoftGraphServiceTest::fallback);
+
+        assertThat(profile.getId()).isEqualTo("oid-1");
+        assertThat(graph.requestCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("graph.profile.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void staleProfileIsServedImmediatelyAndRefreshedInBackground() throws Exception {
+        MicrosoftGraphService shortTtl = new MicrosoftGraphService(graph.baseUrl(), 500, 5000, 4, 8, 3000,
+                0, 60000, 100, 3, 200, 4, meterRegistry);
+        try {
+            shortTtl.getCachedUserProfileOrElse("oid-1", "token", MicrosoftGraphServiceTest::fallback);
+            graph.delay(1000).body(StubGraphServer.profileJson("oid-1", "Renamed", "stub@cit.edu", "22-1234-567"));
+
+            long start = System.nanoTime();
+            MicrosoftGraphService.UserProfile stale = shortTtl.getCachedUserProfileOrElse("oid-1", "token", MicrosoftGraphServiceTest::fallback);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(800);
+            assertThat(stale.getDisplayName()).isEqualTo("Stub User");
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (meterRegistry.get("graph.profile.fetch").tag("mode", "background").timer().count() == 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            graph.delay(0);
+            assertThat(shortTtl.getCachedUserProfileOrElse("oid-1", "token", MicrosoftGraphServiceTest::fallback).getDisplayName())
+                    .isEqualTo("Renamed");
+        } finally {
+            shortTtl.close();
+        }
+    }
+
+    @Test
+    void fallbackProfilesAreNotCached() {
+        graph.status(503);
+        assertThat(service.getCachedUserProfileOrElse("oid-1", "token", MicrosoftGraphServiceTest::fallback).getId())
+                .isEqualTo("from-id-token");
+
+        graph.status(200);
+        assertThat(service.getCachedUserProfileOrElse("oid-1", "token", MicrosoftGraphServiceTest::fallback).getId())
+                .isEqualTo("oid-1");
+        assertThat(graph.requestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void openCircuitSkipsGraphUntilProbeSucceeds() throws Exception {
+        graph.status(503);
+        for (int i = 0; i < 3; i++) {
+            service.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback);
+        }
+        assertThat(meterRegistry.get("graph.breaker.state").gauge().value()).isEqualTo(1.0);
+
+        // open: straight to the fallback, Graph is not called even though it is slow now
+        graph.status(200).delay(1000);
+        int before = graph.requestCount();
+        long start = System.nanoTime();
+        assertThat(service.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback).getId()).isEqualTo("from-id-token");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(100);
+        assertThat(graph.requestCount()).isEqualTo(before);
+        assertThat(meterRegistry.get("graph.calls.rejected").tag("reason", "circuit_open").counter().count()).isEqualTo(1.0);
+
+        // half-open probe after the open period closes the circuit again
+        graph.delay(0);
+        Thread.sleep(250);
+        assertThat(service.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback).getId()).isEqualTo("oid-1");
+        assertThat(meterRegistry.get("graph.breaker.state").gauge().value()).isEqualTo(0.0);
+        assertThat(meterRegistry.get("graph.breaker.transitions").tag("to", "half_open").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("graph.breaker.transitions").tag("to", "closed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void failedProbeReopensCircuit() throws Exception {
+        graph.delay(1000);
+        for (int i = 0; i < 3; i++) {
+            service.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback);
+        }
+        Thread.sleep(250);
+        service.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback);
+
+        assertThat(meterRegistry.get("graph.breaker.state").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("graph.breaker.transitions").tag("to", "open").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() {
+        graph.status(401);
+        for (int i = 0; i < 5; i++) {
+            service.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback);
+        }
+        assertThat(meterRegistry.get("graph.breaker.state").gauge().value()).isEqualTo(0.0);
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondConcurrencyLimit() throws Exception {
+        graph.delay(250);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<MicrosoftGraphService.UserProfile>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> service.getUserProfileOrElse("token", MicrosoftGraphServiceTest::fallback)));
+            }
+            for (Future<MicrosoftGraphService.UserProfile> r : results) {
+                r.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(graph.requestCount()).isLessThanOrEqualTo(4);
+        assertThat(meterRegistry.get("graph.calls.rejected").tag("reason", "bulkhead_full").counter().count()).isGreaterThan(0);
+    }
+}
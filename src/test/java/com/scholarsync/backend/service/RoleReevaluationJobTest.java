@@ -0,0 +1,139 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.scholarsync.backend.dto.RoleReevaluationProgress;
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.UserRepository;
+import com.scholarsync.backend.repository.UserRepository.RoleView;
+import com.scholarsync.backend.security.UserVersionTable;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+public class RoleReevaluationJobTest {
+
+    private final NavigableMap<UUID, User> table = new TreeMap<>();
+    private UserRepository userRepository;
+    private UserVersionTable versions;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.count()).thenAnswer(inv -> (long) table.size());
+        when(userRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(table.get(inv.getArgument(0))));
+        when(userRepository.findRolePage(any())).thenAnswer(inv -> page(table, inv.getArgument(0)));
+        when(userRepository.findRolePageAfter(any(), any()))
+                .thenAnswer(inv -> page(table.tailMap(inv.getArgument(0), false), inv.getArgument(1)));
+        when(userRepository.updateRole(anyCollection(), any())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            Role role = inv.getArgument(1);
+            int n = 0;
+            for (UUID id : ids) {
+                User u = table.get(id);
+                if (u.getRole() != role) {
+                    u.setRole(role);
+                    n++;
+                }
+            }
+            return n;
+        });
+        versions = new UserVersionTable(userRepository, 30000, 100000);
+    }
+
+    private static List<RoleView> page(NavigableMap<UUID, User> rows, Pageable page) {
+        return rows.values().stream().limit(page.getPageSize()).map(u -> (RoleView) new RoleView() {
+            public UUID getId() { return u.getId(); }
+            public String getInstitutionalId() { return u.getInstitutionalId(); }
+            public Role getRole() { return u.getRole(); }
+        }).collect(Collectors.toList());
+    }
+
+    private User add(long n, String institutionalId, Role role) {
+        User u = User.builder().id(new UUID(0, n)).email(n + "@cit.edu").microsoftId("ms-" + n)
+                .institutionalId(institutionalId).role(role).build();
+        table.put(u.getId(), u);
+        return u;
+    }
+
+    private RoleReevaluationJob job(int pageSize) {
+        return new RoleReevaluationJob(userRepository, new RoleDeterminationService(RoleRuleTableTest.stockRules()),
+                versions, pageSize);
+    }
+
+    @Test
+    void updatesOnlyChangedRowsPageByPage() {
+        for (int i = 1; i <= 10; i++) {
+            add(i, "22-0000-" + (100 + i), Role.STUDENT);
+        }
+        User teacher = add(11, "42", Role.STUDENT);
+        User admin = add(12, "SYSTEM ADMIN", Role.UNKNOWN);
+        User unknown = add(13, "nope", Role.TEACHER);
+        versions.record(teacher);
+        int before = versions.currentVersion(teacher.getId());
+
+        RoleReevaluationJob job = job(4);
+        assertThat(job.start()).isTrue();
+        await(job);
+
+        assertThat(teacher.getRole()).isEqualTo(Role.TEACHER);
+        assertThat(admin.getRole()).isEqualTo(Role.ADMIN);
+        assertThat(unknown.getRole()).isEqualTo(Role.UNKNOWN);
+        assertThat(versions.currentVersion(teacher.getId())).isEqualTo(before + 1);
+
+        RoleReevaluationProgress progress = job.getProgress();
+        assertThat(progress.getStatus()).isEqualTo(RoleReevaluationProgress.Status.COMPLETED);
+        assertThat(progress.getScanned()).isEqualTo(13);
+        assertThat(progress.getUpdated()).isEqualTo(3);
+        assertThat(progress.getPercent()).isEqualTo(100);
+        // 13 rows in pages of 4: one first page, then three keyset pages
+        verify(userRepository, times(1)).findRolePage(any());
+        verify(userRepository, times(3)).findRolePageAfter(any(), any());
+        // the last page holds all three changes, one UPDATE per target role
+        verify(userRepository, times(3)).updateRole(anyCollection(), any());
+
+        // nothing left to change on a second run
+        assertThat(job.start()).isTrue();
+        await(job);
+        assertThat(job.getProgress().getUpdated()).isZero();
+        verify(userRepository, times(3)).updateRole(anyCollection(), any());
+    }
+
+    @Test
+    void failureIsReportedAndAllowsRestart() {
+        add(1, "42", Role.STUDENT);
+        doThrow(new IllegalStateException("db down")).when(userRepository).findRolePage(any());
+
+        RoleReevaluationJob job = job(10);
+        job.start();
+        await(job);
+
+        assertThat(job.getProgress().getStatus()).isEqualTo(RoleReevaluationProgress.Status.FAILED);
+        assertThat(job.getProgress().getError()).isEqualTo("db down");
+        assertThat(job.start()).isTrue();
+        await(job);
+    }
+
+    private static void await(RoleReevaluationJob job) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.getProgress().getStatus() == RoleReevaluationProgress.Status.RUNNING) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.scholarsync.backend.dto.RoleRule;
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.service.InstitutionalIdClassifier.IdPattern;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+public class RoleRuleTableTest {
+
+    @TempDir
+    Path dir;
+
+    /** A table loaded with the bundled role-rules.json, for tests that need a RoleDeterminationService. */
+    public static RoleRuleTable stockRules() {
+        RoleRuleTable table = new RoleRuleTable(new DefaultResourceLoader(), "classpath:role-rules.json");
+        table.init();
+        return table;
+    }
+
+    private RoleRuleTable fileTable(Path file) {
+        RoleRuleTable table = new RoleRuleTable(new DefaultResourceLoader(), file.toUri().toString());
+        table.init();
+        return table;
+    }
+
+    private static String rule(String id, String pattern, String role, int priority) {
+        return "{\"id\":\"" + id + "\",\"pattern\":\"" + pattern.replace("\\", "\\\\") + "\",\"role\":\"" + role
+                + "\",\"priority\":" + priority + ",\"description\":\"" + id + "\"}";
+    }
+
+    private static void write(Path file, String... rules) throws IOException {
+        Files.writeString(file, "[" + String.join(",", rules) + "]");
+    }
+
+    @Test
+    void bundledRulesAgreeWithClassifier() {
+        RoleRuleTable table = stockRules();
+        assertThat(table.getRules()).extracting(RoleRule::getId)
+                .containsExactly("STUDENT_PATTERN_1", "STUDENT_PATTERN_2", "TEACHER_PATTERN", "ADMIN_PATTERN");
+
+        Random random = new Random(38);
+        String alphabet = "0123456789-ADMIN x";
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder id = new StringBuilder();
+            for (int n = random.nextInt(13); n > 0; n--) {
+                id.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            IdPattern expected = InstitutionalIdClassifier.classify(id);
+            RoleRule actual = table.match(id.toString());
+            if (expected == IdPattern.UNKNOWN || expected == IdPattern.NONE) {
+                assertThat(actual).as(id.toString()).isNull();
+            } else {
+                assertThat(actual.getId()).as(id.toString()).isEqualTo(expected.name());
+            }
+        }
+    }
+
+    @Test
+    void customRulesUseCombinedPatternByPriority() throws IOException {
+        Path file = dir.resolve("rules.json");
+        write(file,
+                rule("STAFF", "S-\\d{5}", "TEACHER", 10),
+                // capturing groups in a rule must not shift the groups of the rules after it
+                rule("STUDENT", "(\\d{2})-(\\d{4})", "STUDENT", 50),
+                rule("ANY_DIGITS", "\\d+(-\\d+)*", "ADMIN", 1));
+        RoleRuleTable table = fileTable(file);
+
+        assertThat(table.getRules()).extracting(RoleRule::getId).containsExactly("STUDENT", "STAFF", "ANY_DIGITS");
+        assertThat(table.match("22-1234").getId()).isEqualTo("STUDENT");
+        assertThat(table.match("S-12345").getRole()).isEqualTo(Role.TEACHER);
+        assertThat(table.match("1-2-3").getId()).isEqualTo("ANY_DIGITS");
+        assertThat(table.match("22-1234-567").getId()).isEqualTo("ANY_DIGITS");
+        assertThat(table.match("S-1234")).isNull();
+        assertThat(table.match("")).isNull();
+        assertThat(table.match(null)).isNull();
+    }
+
+    @Test
+    void reloadsChangedFileAndKeepsOldRulesOnError() throws IOException {
+        Path file = dir.resolve("rules.json");
+        write(file, rule("TEACHER", "\\d{1,4}", "TEACHER", 1));
+        RoleRuleTable table = fileTable(file);
+        assertThat(table.match("12345")).isNull();
+
+        write(file, rule("TEACHER", "\\d{1,5}", "TEACHER", 1));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        table.reloadIfChanged();
+        assertThat(table.match("12345").getRole()).isEqualTo(Role.TEACHER);
+
+        // same timestamp as the loaded version: not re-read
+        FileTime loaded = Files.getLastModifiedTime(file);
+        write(file, rule("TEACHER", "\\d{1,6}", "TEACHER", 1));
+        Files.setLastModifiedTime(file, loaded);
+        table.reloadIfChanged();
+        assertThat(table.match("123456")).isNull();
+        assertThat(table.reload()).isTrue();
+        assertThat(table.match("123456").getRole()).isEqualTo(Role.TEACHER);
+
+        write(file, rule("BROKEN", "\\d{1,", "TEACHER", 1));
+        assertThat(table.reload()).isFalse();
+        assertThat(table.match("123456").getRole()).isEqualTo(Role.TEACHER);
+
+        Files.writeString(file, "not json");
+        assertThat(table.reload()).isFalse();
+        assertThat(table.getRules()).hasSize(1);
+    }
+}
@@ -0,0 +1,150 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scholarsync.backend.dto.CourseChangeEvent;
+import com.scholarsync.backend.dto.StudentDto;
+import com.scholarsync.backend.model.Student;
+import com.scholarsync.backend.repository.StudentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+public class RosterSnapshotCacheTest {
+
+    private final StudentRepository repository = mock(StudentRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RosterSnapshotCache cache(long maxBytes) {
+        return new RosterSnapshotCache(repository, objectMapper, maxBytes, 0, new SimpleMeterRegistry());
+    }
+
+    private static List<Student> roster(long courseId, int size, String groupId) {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Student s = new Student();
+            s.setStudentId(String.format("%d-%04d", courseId, i));
+            s.setCourseId(courseId);
+            s.setGroupId(groupId);
+            s.setLastName("Santos");
+            s.setFirstName("Maria");
+            s.setEmail("maria.santos." + i + "@cit.edu");
+            students.add(s);
+        }
+        return students;
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void servesTheSerializedRosterFromTheCache() throws Exception {
+        List<Student> students = roster(1, 3, null);
+        when(repository.findAllByCourseId(1L)).thenReturn(students);
+        RosterSnapshotCache cache = cache(1 << 20);
+
+        RosterSnapshotCache.Snapshot first = cache.get(1L);
+        RosterSnapshotCache.Snapshot second = cache.get(1L);
+
+        assertThat(second).isSameAs(first);
+        verify(repository, times(1)).findAllByCourseId(1L);
+        List<StudentDto> expected = students.stream()
+                .map(s -> new StudentDto(s.getStudentId(), s.getCourseId(), s.getGroupId(), s.getLastName(), s.getFirstName(), s.getEmail()))
+                .toList();
+        assertThat(first.getJson()).isEqualTo(objectMapper.writeValueAsBytes(expected));
+        assertThat(gunzip(first.getGzip())).isEqualTo(first.getJson());
+        assertThat(cache.getTotalBytes()).isEqualTo(first.getJson().length + first.getGzip().length);
+    }
+
+    @Test
+    void rebuildsAfterACourseChange() {
+        when(repository.findAllByCourseId(1L)).thenReturn(roster(1, 3, null), roster(1, 3, "g1"));
+        RosterSnapshotCache cache = cache(1 << 20);
+
+        assertThat(new String(cache.get(1L).getJson())).doesNotContain("g1");
+        cache.onCourseChange(new CourseChangeEvent(CourseChangeEvent.Type.GROUP_CREATED, 1L, "g1", "Team 1", List.of()));
+
+        assertThat(new String(cache.get(1L).getJson())).contains("\"groupId\":\"g1\"");
+        verify(repository, times(2)).findAllByCourseId(1L);
+    }
+
+    @Test
+    void doesNotKeepASnapshotReadBeforeAConcurrentChange() {
+        RosterSnapshotCache cache = cache(1 << 20);
+        when(repository.findAllByCourseId(1L)).thenAnswer(invocation -> {
+            cache.invalidate(1L); // a write commits while the roster is being read
+            return roster(1, 3, null);
+        }).thenReturn(roster(1, 3, "g1"));
+
+        cache.get(1L);
+
+        assertThat(cache.getTotalBytes()).isZero();
+        assertThat(new String(cache.get(1L).getJson())).contains("g1");
+        verify(repository, times(2)).findAllByCourseId(1L);
+    }
+
+    @Test
+    void requestsJoinedOnAFailedBuildSeeItsError() throws Exception {
+        RosterSnapshotCache cache = cache(1 << 20);
+        CountDownLatch building = new CountDownLatch(1);
+        when(repository.findAllByCourseId(1L)).thenAnswer(invocation -> {
+            building.countDown();
+            Thread.sleep(200); // long enough for the second request to join
+            throw new OutOfMemoryError("roster too large");
+        });
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Throwable> first = pool.submit(() -> catchThrowable(() -> cache.get(1L)));
+            assertThat(building.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Throwable joined = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> catchThrowable(() -> cache.get(1L)));
+
+            assertThat(joined).isInstanceOf(OutOfMemoryError.class);
+            assertThat(first.get(5, TimeUnit.SECONDS)).isInstanceOf(OutOfMemoryError.class);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedCourseBeyondMaxBytes() {
+        for (long course = 1; course <= 3; course++) {
+            when(repository.findAllByCourseId(course)).thenReturn(roster(course, 50, null));
+        }
+        RosterSnapshotCache.Snapshot sample = cache(1 << 20).get(1L);
+        long size = sample.getJson().length + sample.getGzip().length;
+        RosterSnapshotCache cache = cache(size * 5 / 2);
+
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(1L); // course 2 is now the least recently used
+        cache.get(3L);
+
+        assertThat(cache.getTotalBytes()).isLessThanOrEqualTo(size * 5 / 2);
+        cache.get(1L);
+        cache.get(3L);
+        cache.get(2L);
+        verify(repository, times(2)).findAllByCourseId(1L); // once for the sample, once here, then hits
+        verify(repository, times(1)).findAllByCourseId(3L);
+        verify(repository, times(2)).findAllByCourseId(2L);
+    }
+}
@@ -0,0 +1,88 @@
+package com.scholarsync.backend.service;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Local stand-in for Microsoft Graph serving {@code /me} with a configurable delay and status,
+ * so tests can exercise the Graph client against slow or failing responses.
+ */
+public class StubGraphServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long delayMillis;
+    private volatile int status = 200;
+    private volatile Function<String, String> responder = token -> profileJson("oid-1", "Stub User", "stub@cit.edu", "22-1234-567");
+
+    public StubGraphServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/me", exchange -> {
+            requests.incrementAndGet();
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                String auth = exchange.getRequestHeaders().getFirst("Authorization");
+                String token = auth != null && auth.startsWith("Bearer ") ? auth.substring(7) : "";
+                byte[] bytes = responder.apply(token).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } catch (InterruptedException | IOException e) {
+                // client gave up or server is stopping
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    public static String profileJson(String id, String displayName, String mail, String jobTitle) {
+        return String.format("{\"id\":\"%s\",\"displayName\":\"%s\",\"mail\":\"%s\",\"userPrincipalName\":\"%s\",\"jobTitle\":\"%s\"}",
+                id, displayName, mail, mail, jobTitle);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public StubGraphServer delay(long millis) {
+        this.delayMillis = millis;
+        return this;
+    }
+
+    public StubGraphServer status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public StubGraphServer body(String body) {
+        this.responder = token -> body;
+        return this;
+    }
+
+    /** Builds each response from the request's access token, e.g. to serve a distinct user per token. */
+    public StubGraphServer respondWith(Function<String, String> responder) {
+        this.responder = responder;
+        return this;
+    }
+
+    public int requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,104 @@
+package com.scholarsync.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.scholarsync.backend.model.Role;
+import com.scholarsync.backend.model.User;
+import com.scholarsync.backend.repository.UserRepository;
+import com.scholarsync.backend.security.UserVersionTable;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class UserServiceTest {
+
+    private UserRepository userRepository;
+    private LastLoginWriteBuffer buffer;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+        buffer = new LastLoginWriteBuffer(userRepository);
+        userService = new UserService(userRepository, new RoleDeterminationService(RoleRuleTableTest.stockRules()),
+                new UserVersionTable(userRepository, 30000, 100000), buffer, mock(EntityManager.class));
+    }
+
+    private User existing() {
+        return User.builder().id(UUID.randomUUID()).microsoftId("ms-1").email("a@cit.edu").displayName("A")
+                .institutionalId("22-1234-567").role(Role.STUDENT).isActive(true)
+                .lastLoginAt(LocalDateTime.now().minusDays(1)).build();
+    }
+
+    @Test
+    void newUserIsSavedAndReportedAsNew() {
+        when(userRepository.findByMicrosoftId("ms-1")).thenReturn(Optional.empty());
+
+        UserService.LoginResult result = userService.upsertFromOAuth("ms-1", "a@cit.edu", "A", "22-1234-567");
+
+        assertThat(result.isNewUser()).isTrue();
+        assertThat(result.getUser().getRole()).isEqualTo(Role.STUDENT);
+        verify(userRepository).save(any(User.class));
+        verify(userRepository, times(1)).findByMicrosoftId("ms-1");
+    }
+
+    @Test
+    void unchangedProfileSkipsUpdateAndBuffersLastLogin() {
+        User user = existing();
+        when(userRepository.findByMicrosoftId("ms-1")).thenReturn(Optional.of(user));
+
+        UserService.LoginResult result = userService.upsertFromOAuth("ms-1", "a@cit.edu", "A", "22-1234-567");
+
+        assertThat(result.isNewUser()).isFalse();
+        assertThat(result.getUser().getLastLoginAt()).isAfter(LocalDateTime.now().minusMinutes(1));
+        verify(userRepository, never()).save(any(User.class));
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void changedProfileIsSavedImmediately() {
+        User user = existing();
+        when(userRepository.findByMicrosoftId("ms-1")).thenReturn(Optional.of(user));
+
+        UserService.LoginResult result = userService.upsertFromOAuth("ms-1", "a@cit.edu", "A Renamed", "22-1234-567");
+
+        assertThat(result.getUser().getDisplayName()).isEqualTo("A Renamed");
+        verify(userRepository).save(user);
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bufferCoalescesRepeatLoginsAndBatchesBySecond() {
+        LocalDateTime t = LocalDateTime.of(2025, 1, 6, 8, 0, 0);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        buffer.record(a, t.plusNanos(100));
+        buffer.record(b, t.plusNanos(900_000_000));
+        buffer.record(a, t.minusSeconds(5)); // older login reported late: ignored
+
+        buffer.flush();
+
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository, times(1)).updateLastLoginAt(ids.capture(), eq(t));
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(a, b);
+        assertThat(buffer.pendingCount()).isZero();
+
+        buffer.flush();
+        verify(userRepository, times(1)).updateLastLoginAt(anyCollection(), any(LocalDateTime.class));
+    }
+}